@@ -0,0 +1,62 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 手写的 {@link CompletableFuture} 基线，与 {@link Dags} 中的 DAG 形状一致，每个节点都是提交到线程池的空任务
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 17:45
+ * @version 1.0.0
+ */
+public final class Baselines {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    private Baselines() {
+    }
+
+    /**
+     * 单个节点
+     */
+    public static Object single(Executor executor) {
+        return CompletableFuture.runAsync(NOOP, executor).join();
+    }
+
+    /**
+     * 链：depth 个节点首尾相连，最后连接到 collector
+     */
+    public static Object chain(Executor executor, int depth) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(NOOP, executor);
+        for (int i = 1; i < depth; i++) {
+            future = future.thenRunAsync(NOOP, executor);
+        }
+        return future.thenRunAsync(NOOP, executor).join();
+    }
+
+    /**
+     * 扇出再扇入：一个节点扇出到 width 个节点，再汇聚到 collector
+     */
+    public static Object fanOutFanIn(Executor executor, int width) {
+        final CompletableFuture<Void> source = CompletableFuture.runAsync(NOOP, executor);
+        final CompletableFuture<?>[] middle = new CompletableFuture<?>[width];
+        for (int i = 0; i < width; i++) {
+            middle[i] = source.thenRunAsync(NOOP, executor);
+        }
+        return CompletableFuture.allOf(middle).thenRunAsync(NOOP, executor).join();
+    }
+
+    /**
+     * 与测试相同的形状：B 依赖 A、C、D，collector 依赖 B
+     */
+    public static Object abcd(Executor executor) {
+        final CompletableFuture<Void> a = CompletableFuture.runAsync(NOOP, executor);
+        final CompletableFuture<Void> c = CompletableFuture.runAsync(NOOP, executor);
+        final CompletableFuture<Void> d = CompletableFuture.runAsync(NOOP, executor);
+        return CompletableFuture.allOf(a, c, d)
+                .thenRunAsync(NOOP, executor)
+                .thenRunAsync(NOOP, executor)
+                .join();
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.benchmark.mapper.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理 size 个输入的耗时：loop 为逐个调用 run，batch 为一次 runBatch
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 16:50
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    private List<Object> inputs;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        client = ItemStreamClient.create(globalSetup);
+        plan = ItemStreamPlan.compile(globalSetup, Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class), DefaultCollector.class);
+        inputs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            inputs.add(new Object());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Object> loop() throws InterruptedException {
+        final List<Object> outputs = new ArrayList<>(size);
+        for (Object input : inputs) {
+            try {
+                outputs.add(client.init().input(input).output(new Object()).plan(plan).run());
+            } finally {
+                client.clear();
+            }
+        }
+        return outputs;
+    }
+
+    @Benchmark
+    public List<Object> batch() throws InterruptedException {
+        try {
+            return client.init().plan(plan).runBatch(inputs, Object::new);
+        } finally {
+            client.clear();
+        }
+    }
+}
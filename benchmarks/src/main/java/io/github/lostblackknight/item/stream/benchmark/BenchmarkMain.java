@@ -0,0 +1,29 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口，参数与 {@link Main} 相同
+ * <p>没有指定 -prof 时默认开启 GC profiler，同时输出每次运行的耗时与分配的字节数（gc.alloc.rate.norm）
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 17:45
+ * @version 1.0.0
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-prof")) {
+            arguments.add("-prof");
+            arguments.add("gc");
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
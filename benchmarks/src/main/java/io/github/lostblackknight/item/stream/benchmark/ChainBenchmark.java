@@ -0,0 +1,69 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链式 DAG 的端到端延迟：depth 个空 Mapper 首尾相连
+ * <p>inline 为 false 时每条边都提交到线程池，为 true 时由完成依赖的线程直接运行下一个项目流；
+ * completableFuture 为相同形状的 {@link java.util.concurrent.CompletableFuture} 基线，不受 inline 影响
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 15:10
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int depth;
+
+    @Param({"false", "true"})
+    private boolean inline;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setInline(inline);
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.chain(depth);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object run() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+
+    @Benchmark
+    public Object completableFuture() {
+        return Baselines.chain(executor, depth);
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Item;
+import io.github.lostblackknight.item.stream.RunnableMode;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 运行时生成带 {@link Item} 的 Mapper 与 Collector，用于构造任意形状的 DAG
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 11:20
+ * @version 1.0.0
+ */
+public final class Dags {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private Dags() {
+    }
+
+    /**
+     * 扇入：width 个 Mapper 汇聚到一个 Collector
+     *
+     * @param width 宽度
+     * @return DAG
+     */
+    public static Dag fanIn(int width) {
+        return fanIn(width, RunnableMode.ALL);
+    }
+
+    /**
+     * 扇入：width 个 Mapper 汇聚到一个 Collector
+     *
+     * @param width        宽度
+     * @param runnableMode Collector 的运行模式，为 {@link RunnableMode#MUST} 时所有 Mapper 都是必须依赖的项目流
+     * @return DAG
+     */
+    public static Dag fanIn(int width, RunnableMode runnableMode) {
+        return fanIn(NoopMapper.class, width, runnableMode);
+    }
+
+    /**
+     * 扇入：width 个 mapperClass 的子类汇聚到一个 Collector
+     *
+     * @param mapperClass  Mapper 的父类
+     * @param width        宽度
+     * @param runnableMode Collector 的运行模式，为 {@link RunnableMode#MUST} 时所有 Mapper 都是必须依赖的项目流
+     * @return DAG
+     */
+    public static Dag fanIn(Class<?> mapperClass, int width, RunnableMode runnableMode) {
+        final List<Class<?>> mappers = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            mappers.add(define(mapperClass));
+        }
+        final Class<?>[] dependsOn = mappers.toArray(new Class<?>[0]);
+        final AnnotationDescription item = AnnotationDescription.Builder.ofType(Item.class)
+                .defineTypeArray("dependsOn", dependsOn)
+                .define("runnableMode", runnableMode)
+                .defineTypeArray("runnableMust", RunnableMode.MUST.equals(runnableMode) ? dependsOn : new Class<?>[0])
+                .build();
+        return new Dag(mappers, define(NoopCollector.class, item));
+    }
+
+    /**
+     * 链：depth 个 Mapper 首尾相连，最后一个 Mapper 连接到 Collector
+     *
+     * @param depth 深度
+     * @return DAG
+     */
+    public static Dag chain(int depth) {
+        final List<Class<?>> mappers = new ArrayList<>(depth);
+        Class<?> previous = null;
+        for (int i = 0; i < depth; i++) {
+            previous = previous == null ? define(NoopMapper.class) : define(NoopMapper.class, previous);
+            mappers.add(previous);
+        }
+        return new Dag(mappers, define(NoopCollector.class, previous));
+    }
+
+    /**
+     * 扇出再扇入：一个 Mapper 扇出到 width 个 Mapper，再汇聚到一个 Collector
+     *
+     * @param width 宽度
+     * @return DAG
+     */
+    public static Dag fanOutFanIn(int width) {
+        final List<Class<?>> mappers = new ArrayList<>(width + 1);
+        final Class<?> source = define(NoopMapper.class);
+        mappers.add(source);
+        final List<Class<?>> middle = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            middle.add(define(NoopMapper.class, source));
+        }
+        mappers.addAll(middle);
+        return new Dag(mappers, define(NoopCollector.class, middle.toArray(new Class<?>[0])));
+    }
+
+    /**
+     * 长链加短叶子：leaves 个 {@link ShortSleepMapper} 与一条 depth 个 {@link SleepMapper} 的链一起汇聚到一个 Collector
+     * <p>叶子先声明，所有叶子与链的第一个 Mapper 同时就绪，按提交的顺序运行时链排在所有叶子之后
+     *
+     * @param depth  链的深度
+     * @param leaves 叶子的数量
+     * @return DAG
+     */
+    public static Dag skewed(int depth, int leaves) {
+        final List<Class<?>> mappers = new ArrayList<>(depth + leaves);
+        final List<Class<?>> dependsOn = new ArrayList<>(leaves + 1);
+        for (int i = 0; i < leaves; i++) {
+            dependsOn.add(define(ShortSleepMapper.class));
+        }
+        mappers.addAll(dependsOn);
+        Class<?> previous = null;
+        for (int i = 0; i < depth; i++) {
+            previous = previous == null ? define(SleepMapper.class) : define(SleepMapper.class, previous);
+            mappers.add(previous);
+        }
+        dependsOn.add(previous);
+        return new Dag(mappers, define(NoopCollector.class, dependsOn.toArray(new Class<?>[0])));
+    }
+
+    /**
+     * 生成 superClass 的子类，并通过 {@link Item#dependsOn()} 依赖 dependsOn
+     *
+     * @param superClass superClass
+     * @param dependsOn  依赖的项目流
+     * @return 生成的类
+     */
+    public static Class<?> define(Class<?> superClass, Class<?>... dependsOn) {
+        return define(superClass, AnnotationDescription.Builder.ofType(Item.class)
+                .defineTypeArray("dependsOn", dependsOn)
+                .build());
+    }
+
+    /**
+     * 生成 superClass 的子类，并标注 item
+     *
+     * @param superClass superClass
+     * @param item       {@link Item} 的描述
+     * @return 生成的类
+     */
+    public static Class<?> define(Class<?> superClass, AnnotationDescription item) {
+        final String name = Dags.class.getPackage().getName() + ".generated." + superClass.getSimpleName() + SEQUENCE.incrementAndGet();
+        return new ByteBuddy()
+                .subclass(superClass)
+                .name(name)
+                .annotateType(item)
+                .make()
+                .load(Dags.class.getClassLoader(), ClassLoadingStrategy.Default.INJECTION)
+                .getLoaded();
+    }
+
+    /**
+     * DAG
+     */
+    public static final class Dag {
+
+        private final List<Class<?>> mapperClasses;
+
+        private final Class<?> collectorClass;
+
+        private Dag(List<Class<?>> mapperClasses, Class<?> collectorClass) {
+            this.mapperClasses = Collections.unmodifiableList(mapperClasses);
+            this.collectorClass = collectorClass;
+        }
+
+        public List<Class<?>> getMapperClasses() {
+            return mapperClasses;
+        }
+
+        public Class<?> getCollectorClass() {
+            return collectorClass;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.RunnableMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依赖数量的伸缩性：width 个空 Mapper 汇聚到一个 Collector，在调用线程上同步执行，排除线程池的影响
+ * <p>每个依赖事件的就绪判断为 O(1) 时，耗时随 width 线性增长
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 11:50
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependsOnScalingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int width;
+
+    @Param({"ALL", "MUST"})
+    private RunnableMode runnableMode;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(Runnable::run);
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.fanIn(width, runnableMode);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @Benchmark
+    public Object run() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.RunnableMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 宽扇入 DAG 的吞吐量：width 个空 Mapper 汇聚到一个 Collector
+ * <p>runnableMode 为 MUST 时所有 Mapper 都是 Collector 必须依赖的项目流
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 11:20
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanInBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int width;
+
+    @Param({"ALL", "MUST"})
+    private RunnableMode runnableMode;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.fanIn(width, runnableMode);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object run() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+}
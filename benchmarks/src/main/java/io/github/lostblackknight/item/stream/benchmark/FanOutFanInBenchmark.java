@@ -0,0 +1,63 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扇出再扇入的编排开销：一个空 Mapper 扇出到 width 个空 Mapper，再汇聚到一个 Collector，与相同形状的 {@link java.util.concurrent.CompletableFuture} 对比
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 17:45
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutFanInBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int width;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.fanOutFanIn(width);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object itemStream() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+
+    @Benchmark
+    public Object completableFuture() {
+        return Baselines.fanOutFanIn(executor, width);
+    }
+}
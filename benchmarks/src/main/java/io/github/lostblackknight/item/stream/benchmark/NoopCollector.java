@@ -0,0 +1,17 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.ItemStreamCollector;
+
+/**
+ * 空的 Collector，{@link Dags} 生成的 Collector 都继承自它
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 11:20
+ * @version 1.0.0
+ */
+public class NoopCollector extends ItemStreamCollector<Object, Object> {
+
+    @Override
+    public void collect(Object output, Context<Object, Object> context) throws Exception {
+    }
+}
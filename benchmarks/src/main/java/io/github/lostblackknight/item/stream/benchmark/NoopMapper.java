@@ -0,0 +1,17 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.ItemStreamMapper;
+
+/**
+ * 空的 Mapper，{@link Dags} 生成的 Mapper 都继承自它
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 11:20
+ * @version 1.0.0
+ */
+public class NoopMapper extends ItemStreamMapper<Object, Object> {
+
+    @Override
+    public void map(Object input, Object output, Context<Object, Object> context) throws Exception {
+    }
+}
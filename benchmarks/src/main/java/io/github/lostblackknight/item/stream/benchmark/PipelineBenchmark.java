@@ -0,0 +1,87 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPipeline;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.benchmark.mapper.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理 1000 个输入的耗时：loop 为逐个调用 run，pipeline 为最多 maxInFlight 个输入同时运行的流水线
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 17:20
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    private static final int SIZE = 1000;
+
+    @Param({"1", "16", "256"})
+    private int maxInFlight;
+
+    @Param({"true", "false"})
+    private boolean ordered;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    private List<Object> inputs;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        client = ItemStreamClient.create(globalSetup);
+        plan = ItemStreamPlan.compile(globalSetup, Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class), DefaultCollector.class);
+        inputs = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            inputs.add(new Object());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void loop(Blackhole blackhole) throws InterruptedException {
+        for (Object input : inputs) {
+            try {
+                blackhole.consume(client.init().input(input).output(new Object()).plan(plan).run());
+            } finally {
+                client.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public void pipeline(Blackhole blackhole) {
+        final ItemStreamPipeline<Object, Object> pipeline;
+        try {
+            pipeline = client.init().plan(plan).pipeline(Object::new).maxInFlight(maxInFlight).ordered(ordered);
+        } finally {
+            client.clear();
+        }
+        pipeline.forEach(inputs.iterator(), blackhole::consume);
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.benchmark.mapper.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次运行的装配耗时
+ * <p>dynamic 为每次运行都重新解析 {@link io.github.lostblackknight.item.stream.Item} 并构建依赖关系，
+ * compiled 为复用已编译的 {@link ItemStreamPlan}，只创建运行时的状态
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 10:40
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanBenchmark {
+
+    private final List<Class<?>> mapperClasses = Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class);
+
+    private GlobalSetup globalSetup;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        globalSetup = new GlobalSetup();
+        plan = ItemStreamPlan.compile(globalSetup, mapperClasses, DefaultCollector.class);
+    }
+
+    @Benchmark
+    public Context<Object, Object> dynamic() {
+        final Context<Object, Object> context = new Context<>();
+        ItemStreamPlan.compile(globalSetup, mapperClasses, DefaultCollector.class).instantiate(context);
+        return context;
+    }
+
+    @Benchmark
+    public Context<Object, Object> compiled() {
+        final Context<Object, Object> context = new Context<>();
+        plan.instantiate(context);
+        return context;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池饱和时按优先级调度与按提交顺序调度的单次运行耗时：{@link Dags#skewed(int, int)}，4 个 {@link SleepMapper} 的链与 32 个 {@link ShortSleepMapper}，
+ * 4 个线程的固定线程池
+ * <p>fifo 时链排在所有叶子之后，priority 为 {@link GlobalSetup#setPriorityScheduling(boolean)}，链的向上排名最大，先于叶子运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 19:05
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PriorityBenchmark {
+
+    @Param({"fifo", "priority"})
+    private String scheduling;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setPriorityScheduling("priority".equals(scheduling));
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.skewed(4, 32);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object run() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.ItemStreamMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时较短的阻塞型 Mapper，与 {@link SleepMapper} 一起构造耗时不均的 DAG
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 19:05
+ * @version 1.0.0
+ */
+public class ShortSleepMapper extends ItemStreamMapper<Object, Object> {
+
+    /**
+     * 每次 map 阻塞的毫秒数
+     */
+    public static final long SLEEP_MILLIS = 2;
+
+    @Override
+    public void map(Object input, Object output, Context<Object, Object> context) throws Exception {
+        TimeUnit.MILLISECONDS.sleep(SLEEP_MILLIS);
+    }
+}
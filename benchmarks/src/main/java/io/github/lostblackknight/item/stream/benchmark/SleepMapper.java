@@ -0,0 +1,25 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.ItemStreamMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模拟阻塞 I/O 的 Mapper，与测试中的 AMapper 一样通过 sleep 阻塞当前线程
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 14:20
+ * @version 1.0.0
+ */
+public class SleepMapper extends ItemStreamMapper<Object, Object> {
+
+    /**
+     * 每次 map 阻塞的毫秒数
+     */
+    public static final long SLEEP_MILLIS = 10;
+
+    @Override
+    public void map(Object input, Object output, Context<Object, Object> context) throws Exception {
+        TimeUnit.MILLISECONDS.sleep(SLEEP_MILLIS);
+    }
+}
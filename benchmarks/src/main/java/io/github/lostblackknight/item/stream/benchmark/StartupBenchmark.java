@@ -0,0 +1,46 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.benchmark.mapper.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动时按包名查找 mapper 并编译执行计划的耗时，每次 fork 只测量第一次调用
+ * <p>mapperIndex 为 true 时读取编译时生成的索引，为 false 时扫描类路径，在 benchmarks.jar 中需要遍历所有的 jar 条目。
+ * 测量前先按类编译一次执行计划，排除加载引擎自身的类的耗时
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:10
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    private static final String PACKAGE_NAME = "io.github.lostblackknight.item.stream.benchmark.mapper";
+
+    @Param({"true", "false"})
+    public boolean mapperIndex;
+
+    private GlobalSetup globalSetup;
+
+    @Setup
+    public void setup() {
+        globalSetup = new GlobalSetup();
+        globalSetup.setMapperIndex(mapperIndex);
+        ItemStreamPlan.compile(globalSetup, Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class), DefaultCollector.class);
+    }
+
+    @Benchmark
+    public ItemStreamPlan firstCompile() {
+        return ItemStreamClient.<Object, Object>create(globalSetup).compile(PACKAGE_NAME, DefaultCollector.class);
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.lostblackknight.item.stream.benchmark;
+
+import io.github.lostblackknight.item.stream.GlobalSetup;
+import io.github.lostblackknight.item.stream.ItemStreamClient;
+import io.github.lostblackknight.item.stream.ItemStreamPlan;
+import io.github.lostblackknight.item.stream.RunnableMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阻塞型 Mapper 在固定线程池与虚拟线程下的吞吐量：width 个 {@link SleepMapper} 汇聚到一个 Collector，8 个线程并发运行
+ * <p>fixed-N 为 N 个平台线程的固定线程池，virtual 为 {@link GlobalSetup#setVirtualThreads(boolean)}，需要 JDK 21 及以上
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 14:20
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int width;
+
+    @Param({"fixed-8", "fixed-64", "virtual"})
+    private String executorType;
+
+    private ExecutorService executor;
+
+    private ItemStreamClient<Object, Object> client;
+
+    private ItemStreamPlan plan;
+
+    @Setup
+    public void setup() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        if ("virtual".equals(executorType)) {
+            globalSetup.setVirtualThreads(true);
+        } else {
+            executor = Executors.newFixedThreadPool(Integer.parseInt(executorType.substring("fixed-".length())));
+            globalSetup.setExecutor(executor);
+        }
+        client = ItemStreamClient.create(globalSetup);
+        final Dags.Dag dag = Dags.fanIn(SleepMapper.class, width, RunnableMode.ALL);
+        plan = ItemStreamPlan.compile(globalSetup, dag.getMapperClasses(), dag.getCollectorClass());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object run() throws InterruptedException {
+        try {
+            return client.init().output(new Object()).plan(plan).run();
+        } finally {
+            client.clear();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.lostblackknight.item.stream.benchmark.mapper;
+
+import io.github.lostblackknight.item.stream.Context;
+import io.github.lostblackknight.item.stream.Item;
+import io.github.lostblackknight.item.stream.ItemStreamMapper;
+
+/**
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 10:40
+ * @version 1.0.0
+ */
+@Item
+public class AMapper extends ItemStreamMapper<Object, Object> {
+
+    @Override
+    public void map(Object input, Object output, Context<Object, Object> context) throws Exception {
+    }
+}
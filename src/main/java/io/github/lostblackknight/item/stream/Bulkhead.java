@@ -0,0 +1,126 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 项目流的隔离舱，限制同一个项目流在所有运行中同时占用的并发数，并统计排队与活跃的数量，只为配置了 {@link Item#maxConcurrency()} 的项目流创建
+ * <p>并发数已满时就绪的任务在隔离舱中排队，不提交到线程池，也不占用线程；有运行结束归还并发数时按就绪的顺序提交排队的任务。
+ * 同一个 {@link GlobalSetup} 中相同的项目流共用一个隔离舱，见 {@link GlobalSetup#getBulkheads()}
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 23:40
+ * @version 1.0.0
+ * @see Item#maxConcurrency()
+ */
+public final class Bulkhead {
+
+    /**
+     * 项目流的名称
+     */
+    private final String name;
+
+    /**
+     * 最多同时占用的并发数，大于 0
+     */
+    private final int maxConcurrency;
+
+    /**
+     * 占用并发数的运行数量，包括已提交到线程池尚未开始的运行
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * 在隔离舱中排队的任务
+     */
+    private final Queue<ItemStreamTask> waiting = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 在隔离舱中排队的任务数量
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    Bulkhead(String name, int maxConcurrency) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 尝试占用一个并发数
+     *
+     * @return 是否占用成功
+     */
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = active.get();
+            if (current >= maxConcurrency) {
+                return false;
+            }
+        } while (!active.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * 归还一个并发数，并提交排队的任务
+     */
+    void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * 并发数已满时排队，等待归还的并发数
+     *
+     * @param task 就绪的任务
+     */
+    void park(ItemStreamTask task) {
+        queued.incrementAndGet();
+        waiting.offer(task);
+        // 排队前可能已有运行归还了并发数
+        drain();
+    }
+
+    /**
+     * 为排队的任务占用并发数并提交，队列为空或并发数已满时停止
+     */
+    private void drain() {
+        while (!waiting.isEmpty() && tryAcquire()) {
+            final ItemStreamTask task = waiting.poll();
+            if (task == null) {
+                active.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                task.submit();
+            } catch (RuntimeException e) {
+                // 提交失败时已归还并发数，以失败的原因打断，不影响归还并发数的运行
+                task.abortUnscheduled(e);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " [active=" + getActiveCount()
+                + ", queued=" + getQueuedCount()
+                + ", maxConcurrency=" + maxConcurrency + "]";
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+
+/**
+ * 可缓存结果的项目流 Mapper
+ * <p>适合只依赖输入中一小部分的纯函数，例如按编码查询参考数据。{@link #map(Object, Object, Context)} 拆分为三步：
+ * {@link #key(Object, Context)} 从输入中提取缓存的键，{@link #load(Object, Object, Context)} 按键计算结果，
+ * {@link #apply(Object, Object, Context)} 把结果写入输出
+ * <p>通过 {@link Item#cacheSize()} 开启缓存后，命中时在依赖完成的线程上直接把缓存的结果写入输出并进入 TERMINATED，不占用线程池；
+ * 未命中时提交到线程池运行，运行结束后写入缓存。批量运行时不使用缓存
+ *
+ * @param <K> 缓存的键
+ * @param <V> 缓存的结果
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 19:40
+ * @version 1.0.0
+ * @see ItemStreamCache
+ */
+public abstract class CacheableItemStreamMapper<I, O, K, V> extends ItemStreamMapper<I, O> {
+
+    @Override
+    protected void doRunnableInterval(ItemStreamTask task) throws Exception {
+        final ItemStreamCache cache = task.getNode().getCache();
+        final Context<I, O> context = task.getContext();
+        if (ObjUtil.isEmpty(cache) || context.isBatch()) {
+            super.doRunnableInterval(task);
+            return;
+        }
+        final K key = key(context.getInput(), context);
+        final V value = load(key, context.getInput(), context);
+        if (ObjUtil.isNotEmpty(key)) {
+            cache.put(key, value);
+        }
+        apply(value, context.getOutput(), context);
+    }
+
+    /**
+     * 使用缓存的结果，旧值同时在后台重新加载
+     *
+     * @param task 任务
+     * @return 是否命中
+     */
+    @SuppressWarnings("unchecked")
+    boolean applyCached(ItemStreamTask task) throws Exception {
+        final Context<I, O> context = task.getContext();
+        final I input = context.getInput();
+        final K key = key(input, context);
+        if (ObjUtil.isEmpty(key)) {
+            return false;
+        }
+        final ItemStreamCache cache = task.getNode().getCache();
+        final ItemStreamCache.Entry entry = cache.get(key);
+        if (ObjUtil.isEmpty(entry)) {
+            return false;
+        }
+        if (entry.isStale()) {
+            // 本任务的实例在任务结束时归还，重新加载时可能已被其他运行使用，另外获取一个实例并在加载后归还
+            final ItemStreamPlan.Node node = task.getNode();
+            cache.refresh(key, entry, () -> {
+                final CacheableItemStreamMapper<I, O, K, V> mapper = (CacheableItemStreamMapper<I, O, K, V>) node.borrow();
+                try {
+                    return mapper.load(key, input, context);
+                } finally {
+                    node.release(mapper);
+                }
+            }, node.getExecutor());
+        }
+        apply((V) entry.getValue(), context.getOutput(), context);
+        return true;
+    }
+
+    @Override
+    public final void map(I input, O output, Context<I, O> context) throws Exception {
+        apply(load(key(input, context), input, context), output, context);
+    }
+
+    /**
+     * 从输入中提取缓存的键，在依赖完成的线程上调用，需要足够轻量
+     *
+     * @param input   输入
+     * @param context 上下文
+     * @return 键，为空时本次运行不使用缓存
+     */
+    public abstract K key(I input, Context<I, O> context);
+
+    /**
+     * 按键计算结果，结果只能由键与输入决定，不能修改输出与上下文
+     * <p>使用旧值时在后台重新加载，此时本次运行可能已经结束
+     *
+     * @param key     键，不使用缓存时可能为空
+     * @param input   输入
+     * @param context 上下文
+     * @return 结果
+     */
+    public abstract V load(K key, I input, Context<I, O> context) throws Exception;
+
+    /**
+     * 把结果写入输出，命中时在依赖完成的线程上调用
+     *
+     * @param value   结果
+     * @param output  输出
+     * @param context 上下文
+     */
+    public abstract void apply(V value, O output, Context<I, O> context) throws Exception;
+}
@@ -1,21 +1,22 @@
 package io.github.lostblackknight.item.stream;
 
 import cn.hutool.core.date.StopWatch;
-import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjUtil;
 import com.google.common.eventbus.EventBus;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiConsumer;
 
 /**
  * 上下文
+ * <p>只保存一次运行的状态，连线、名称等不随运行变化的部分在 {@link ItemStreamPlan} 中所有运行共用；
+ * stopWatch 与事务事件总线只有用到时才创建
  *
  * @author chensixiang (chensixiang1234@gmail.com) 2023/3/24 23:03
  * @version 1.0.0
@@ -25,6 +26,10 @@ import java.util.concurrent.LinkedBlockingQueue;
  */
 public class Context<I, O> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Context, Exception> CANCEL_CAUSE =
+            AtomicReferenceFieldUpdater.newUpdater(Context.class, Exception.class, "cancelCause");
+
     /**
      * 输入
      */
@@ -36,52 +41,185 @@ public class Context<I, O> {
     private O output;
 
     /**
-     * mappers
+     * 批量运行的输入，为空时不是批量运行
      */
-    private final Map<Class<?>, ItemStreamMapper<?, ?>> mappers = new ConcurrentHashMap<>(64);
+    private List<I> inputs;
 
     /**
-     * beDependsOn
+     * 批量运行的输出，与 {@link #inputs} 一一对应
      */
-    private final Map<Class<?>, Set<Class<?>>> beDependsOn = new ConcurrentHashMap<>(64);
+    private List<O> outputs;
 
     /**
-     * collector
+     * 任务，按拓扑顺序排列
      */
-    private ItemStreamCollector<?, ?> collector;
+    private ItemStreamTask[] tasks = new ItemStreamTask[0];
 
     /**
-     * countDownLatch
+     * mapperClasses
      */
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
+    private List<Class<?>> mapperClasses;
 
     /**
-     * stopWatch
+     * collectorClass
      */
-    private final Queue<StopWatch> stopWatches = new LinkedBlockingQueue<>();
+    private Class<?> collectorClass;
 
     /**
-     * 事务事件总线
+     * 执行计划
      */
-    private final EventBus txEventBus;
+    private ItemStreamPlan plan;
 
-    public Context() {
-        txEventBus = new EventBus(IdUtil.fastSimpleUUID());
-    }
+    /**
+     * 运行结果，由 collector 到达终态时完成，打断时以打断的原因异常完成
+     */
+    private final CompletableFuture<O> future = new CompletableFuture<>();
+
+    /**
+     * stopWatch，只有开启 prettyPrint 的项目流会用到，第一次使用时创建
+     */
+    private volatile Queue<StopWatch> stopWatches;
 
-    public Map<String, ItemStream> getItemStreams() {
-        final HashMap<String, ItemStream> itemStreams = new HashMap<>();
-        mappers.forEach((clazz, itemStreamMapper) -> {
-            final String name = ClassUtil.getClassName(clazz, true);
-            itemStreams.put(name, itemStreamMapper);
-        });
-        if (ObjUtil.isNotEmpty(collector)) {
-            final String name = ClassUtil.getClassName(collector, true);
-            itemStreams.put(name, collector);
+    /**
+     * 开始运行的时间，{@link System#nanoTime()}
+     */
+    private long startNanos;
+
+    /**
+     * 合并运行的键，为空时不合并，见 {@link SingleFlight}
+     */
+    private Object coalesceKey;
+
+    /**
+     * 合并运行时把正在进行的运行的输出复制到本次运行的输出，为空时共享正在进行的运行的输出
+     */
+    private BiConsumer<? super O, ? super O> coalesceCopier;
+
+    /**
+     * 取消的原因，为空时未取消
+     */
+    private volatile Exception cancelCause;
+
+    /**
+     * 事务事件总线，只有开启事务的项目流会用到，第一次使用时创建
+     */
+    private volatile EventBus txEventBus;
+
+    /**
+     * 事务是否已结束，collector 到达终态时结束
+     */
+    private volatile boolean txEnded;
+
+    public Map<String, ItemStreamTask> getItemStreams() {
+        final Map<String, ItemStreamTask> itemStreams = new LinkedHashMap<>(tasks.length * 2);
+        for (ItemStreamTask task : tasks) {
+            itemStreams.put(task.getName(), task);
         }
         return itemStreams;
     }
 
+    /**
+     * 获取项目流在本次运行中的任务
+     *
+     * @param itemStream 项目流
+     * @return 任务
+     */
+    public ItemStreamTask getTask(Class<?> itemStream) {
+        if (ObjUtil.isEmpty(plan) || ObjUtil.isEmpty(tasks)) {
+            return null;
+        }
+        final ItemStreamPlan.Node node = plan.getNode(itemStream);
+        return ObjUtil.isEmpty(node) ? null : tasks[node.getIndex()];
+    }
+
+    /**
+     * 获取 collector 在本次运行中的任务
+     *
+     * @return 任务
+     */
+    public ItemStreamTask getCollector() {
+        if (ObjUtil.isEmpty(plan) || ObjUtil.isEmpty(plan.getCollector()) || ObjUtil.isEmpty(tasks)) {
+            return null;
+        }
+        return tasks[plan.getCollector().getIndex()];
+    }
+
+    /**
+     * 取消本次运行，见 {@link #cancel(Exception)}
+     */
+    public void cancel() {
+        cancel(new CancellationException("Run cancelled."));
+    }
+
+    /**
+     * 取消本次运行
+     * <p>以 cause 异常完成 {@link #getFuture()}；正在运行、等待线程池调度或者等待重试的项目流立即以 cause 打断，运行项目流的线程会被打断；
+     * 尚未就绪的项目流不会再被调度。所有任务都会到达终态，运行不会遗留仍在执行的项目流
+     *
+     * @param cause 取消的原因
+     */
+    public void cancel(Exception cause) {
+        if (CANCEL_CAUSE.compareAndSet(this, null, cause)) {
+            cancelled(cause);
+        }
+    }
+
+    /**
+     * 在定时器上取消本次运行，定时器线程上只决定取消的原因，完成 future 与打断项目流交给 executor，见 {@link Timeouts#handOff(Executor, Runnable)}
+     * <p>决定取消后尚未开始运行的项目流不会再运行
+     *
+     * @param cause    取消的原因
+     * @param executor 完成取消的线程池，为空时在当前线程上完成
+     */
+    void cancel(Exception cause, Executor executor) {
+        if (CANCEL_CAUSE.compareAndSet(this, null, cause)) {
+            Timeouts.handOff(executor, () -> cancelled(cause));
+        }
+    }
+
+    private void cancelled(Exception cause) {
+        future.completeExceptionally(cause);
+        if (ObjUtil.isEmpty(tasks)) {
+            return;
+        }
+        for (ItemStreamTask task : tasks) {
+            if (State.RUNNABLE.equals(task.getState()) || State.RETRY.equals(task.getState())) {
+                task.abort(cause);
+            }
+        }
+    }
+
+    /**
+     * collector 已到达终态，事务结束
+     * <p>已决定回滚的任务在回滚结束后归还项目流实例；其余开启事务的任务提交，运行已结束的立即提交，
+     * 仍在运行的在运行结束时提交，见 {@link ItemStreamTask#commit()}。未开启事务的项目流实例在任务结束时已归还
+     */
+    void endTx() {
+        txEnded = true;
+        for (ItemStreamTask task : tasks) {
+            if (task.getNode().isTx() && task.isRunEnded()) {
+                task.commit();
+            }
+        }
+    }
+
+    /**
+     * 事务是否已结束，见 {@link #endTx()}
+     *
+     * @return 是否已结束
+     */
+    boolean isTxEnded() {
+        return txEnded;
+    }
+
+    public boolean isCancelled() {
+        return ObjUtil.isNotEmpty(cancelCause);
+    }
+
+    public Exception getCancelCause() {
+        return cancelCause;
+    }
+
     public I getInput() {
         return input;
     }
@@ -98,31 +236,136 @@ public class Context<I, O> {
         this.output = output;
     }
 
-    public Map<Class<?>, ItemStreamMapper<?, ?>> getMappers() {
-        return mappers;
+    /**
+     * 是否为批量运行，批量运行时 {@link #getInput()} 与 {@link #getOutput()} 为空，每个通道的输入与输出见 {@link #getInputs()} 与 {@link #getOutputs()}
+     *
+     * @return 是否为批量运行
+     */
+    public boolean isBatch() {
+        return inputs != null;
+    }
+
+    /**
+     * 批量运行时获取通道在 collector 上被打断的原因
+     *
+     * @param lane 通道序号
+     * @return 打断的原因，通道未被打断或者没有 collector 时为空
+     */
+    public Exception getLaneInterruptCause(int lane) {
+        final ItemStreamTask collector = getCollector();
+        return ObjUtil.isEmpty(collector) ? null : collector.getLaneInterruptCause(lane);
+    }
+
+    public List<I> getInputs() {
+        return inputs;
+    }
+
+    public void setInputs(List<I> inputs) {
+        this.inputs = inputs;
+    }
+
+    public List<O> getOutputs() {
+        return outputs;
+    }
+
+    public void setOutputs(List<O> outputs) {
+        this.outputs = outputs;
+    }
+
+    public ItemStreamTask[] getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(ItemStreamTask[] tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<Class<?>> getMapperClasses() {
+        return mapperClasses;
+    }
+
+    public void setMapperClasses(List<Class<?>> mapperClasses) {
+        this.mapperClasses = mapperClasses;
     }
 
-    public Map<Class<?>, Set<Class<?>>> getBeDependsOn() {
-        return beDependsOn;
+    public Class<?> getCollectorClass() {
+        return collectorClass;
     }
 
-    public ItemStreamCollector<?, ?> getCollector() {
-        return collector;
+    public void setCollectorClass(Class<?> collectorClass) {
+        this.collectorClass = collectorClass;
     }
 
-    public void setCollector(ItemStreamCollector<?, ?> collector) {
-        this.collector = collector;
+    public ItemStreamPlan getPlan() {
+        return plan;
     }
 
-    public CountDownLatch getCountDownLatch() {
-        return countDownLatch;
+    public void setPlan(ItemStreamPlan plan) {
+        this.plan = plan;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    void setStartNanos(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 分析本次运行的关键路径
+     *
+     * @return 关键路径，没有 collector 或者 collector 尚未到达终态时为空
+     */
+    public CriticalPath getCriticalPath() {
+        return CriticalPath.of(this);
+    }
+
+    public Object getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public void setCoalesceKey(Object coalesceKey) {
+        this.coalesceKey = coalesceKey;
+    }
+
+    public BiConsumer<? super O, ? super O> getCoalesceCopier() {
+        return coalesceCopier;
+    }
+
+    public void setCoalesceCopier(BiConsumer<? super O, ? super O> coalesceCopier) {
+        this.coalesceCopier = coalesceCopier;
+    }
+
+    public CompletableFuture<O> getFuture() {
+        return future;
     }
 
     public EventBus getTxEventBus() {
-        return txEventBus;
+        EventBus eventBus = txEventBus;
+        if (eventBus == null) {
+            synchronized (this) {
+                eventBus = txEventBus;
+                if (eventBus == null) {
+                    eventBus = new EventBus(IdUtil.fastSimpleUUID());
+                    txEventBus = eventBus;
+                }
+            }
+        }
+        return eventBus;
     }
 
     public Queue<StopWatch> getStopWatches() {
-        return stopWatches;
+        Queue<StopWatch> queue = stopWatches;
+        if (queue == null) {
+            synchronized (this) {
+                queue = stopWatches;
+                if (queue == null) {
+                    queue = new ConcurrentLinkedQueue<>();
+                    stopWatches = queue;
+                }
+            }
+        }
+        return queue;
     }
 }
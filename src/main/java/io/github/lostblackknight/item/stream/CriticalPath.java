@@ -0,0 +1,173 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ObjUtil;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次运行的关键路径
+ * <p>从 collector 开始，沿着决定每个任务状态的依赖事件，即 {@link ItemStreamTask#getTrigger()} 向前回溯，
+ * 得到的任务链决定了本次运行的耗时，缩短链上任意一个任务的耗时都会缩短本次运行的耗时
+ * <p>松弛时间是任务在不推迟 collector 的前提下最多还能推迟结束的时间：按拓扑逆序计算每个任务最晚的结束时间，
+ * 被依赖的任务最晚的就绪时间为其最晚的结束时间减去其从就绪到结束的耗时。被依赖的任务就绪之后才结束的依赖不影响其就绪时间，
+ * 例如 {@link RunnableMode#ANY} 中较慢的依赖，不参与计算
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 18:40
+ * @version 1.0.0
+ * @see Context#getCriticalPath()
+ * @see NodeMetrics#getCriticalCount()
+ */
+public final class CriticalPath {
+
+    /**
+     * 开始运行的时间
+     */
+    private final long startNanos;
+
+    /**
+     * 任务，按拓扑顺序排列
+     */
+    private final ItemStreamTask[] tasks;
+
+    /**
+     * 关键路径上的任务，从第一个任务到 collector
+     */
+    private final List<ItemStreamTask> path;
+
+    /**
+     * 松弛时间，下标为任务的拓扑序号，不影响 collector 的任务为 -1
+     */
+    private final long[] slackNanos;
+
+    private CriticalPath(long startNanos, ItemStreamTask[] tasks, List<ItemStreamTask> path, long[] slackNanos) {
+        this.startNanos = startNanos;
+        this.tasks = tasks;
+        this.path = Collections.unmodifiableList(path);
+        this.slackNanos = slackNanos;
+    }
+
+    /**
+     * 分析一次运行的关键路径
+     *
+     * @param context 上下文
+     * @return 关键路径，没有 collector 或者 collector 尚未到达终态时为空
+     */
+    static CriticalPath of(Context<?, ?> context) {
+        final ItemStreamTask collector = context.getCollector();
+        if (ObjUtil.isEmpty(collector) || collector.getEndNanos() == 0) {
+            return null;
+        }
+        final ItemStreamTask[] tasks = context.getTasks();
+        final LinkedList<ItemStreamTask> path = new LinkedList<>();
+        for (ItemStreamTask task = collector; task != null; task = task.getTrigger()) {
+            path.offerFirst(task);
+        }
+        final long[] latestEnd = new long[tasks.length];
+        final long[] slackNanos = new long[tasks.length];
+        Arrays.fill(slackNanos, -1);
+        final int collectorIndex = collector.getNode().getIndex();
+        latestEnd[collectorIndex] = collector.getEndNanos();
+        slackNanos[collectorIndex] = 0;
+        for (int i = collectorIndex - 1; i >= 0; i--) {
+            final ItemStreamTask task = tasks[i];
+            final long end = task.getEndNanos();
+            if (end == 0) {
+                continue;
+            }
+            long latest = Long.MAX_VALUE;
+            for (ItemStreamPlan.Node successorNode : task.getNode().getBeDependsOn()) {
+                final int j = successorNode.getIndex();
+                final ItemStreamTask successor = tasks[j];
+                final long ready = readyNanos(successor);
+                if (slackNanos[j] < 0 || end > ready) {
+                    continue;
+                }
+                latest = Math.min(latest, latestEnd[j] - (successor.getEndNanos() - ready));
+            }
+            if (latest != Long.MAX_VALUE) {
+                latestEnd[i] = latest;
+                slackNanos[i] = Math.max(0, latest - end);
+            }
+        }
+        return new CriticalPath(context.getStartNanos(), tasks, path, slackNanos);
+    }
+
+    /**
+     * 任务最早可以就绪的时间，即决定其状态的依赖到达终态的时间，依赖完成后通知被依赖任务的耗时计入被依赖的任务
+     */
+    private static long readyNanos(ItemStreamTask task) {
+        final ItemStreamTask trigger = task.getTrigger();
+        return ObjUtil.isNotEmpty(trigger) ? trigger.getEndNanos() : task.getReadyNanos();
+    }
+
+    /**
+     * 获取关键路径上的任务
+     *
+     * @return 任务，从第一个任务到 collector
+     */
+    public List<ItemStreamTask> getPath() {
+        return path;
+    }
+
+    /**
+     * 获取本次运行的耗时，从开始运行到 collector 到达终态
+     *
+     * @return 耗时
+     */
+    public long getDurationNanos() {
+        return path.get(path.size() - 1).getEndNanos() - startNanos;
+    }
+
+    /**
+     * 获取项目流的松弛时间
+     *
+     * @param itemStream 项目流
+     * @return 松弛时间，关键路径上的任务为 0，不影响 collector 或者尚未到达终态的任务为 -1
+     */
+    public long getSlackNanos(Class<?> itemStream) {
+        for (ItemStreamTask task : tasks) {
+            if (task.getNode().getType().equals(itemStream)) {
+                return slackNanos[task.getNode().getIndex()];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 是否在关键路径上
+     *
+     * @param itemStream 项目流
+     * @return 是否在关键路径上
+     */
+    public boolean isCritical(Class<?> itemStream) {
+        return path.stream().anyMatch(task -> task.getNode().getType().equals(itemStream));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Critical Path: ");
+        for (int i = 0; i < path.size(); i++) {
+            sb.append(i == 0 ? "" : " -> ").append(path.get(i).getName());
+        }
+        sb.append(" (").append(micros(getDurationNanos())).append(" us)").append(FileUtil.getLineSeparator());
+        sb.append("---------------------------------------------------------").append(FileUtil.getLineSeparator());
+        sb.append("us       \t  start\t\t  end\t\t  slack\t\t  Task").append(FileUtil.getLineSeparator());
+        sb.append("---------------------------------------------------------").append(FileUtil.getLineSeparator());
+        for (ItemStreamTask task : tasks) {
+            final long slack = slackNanos[task.getNode().getIndex()];
+            sb.append(path.contains(task) ? "*" : " ").append("        \t  ");
+            sb.append(task.getStartNanos() == 0 ? "-" : micros(task.getStartNanos() - startNanos)).append("\t\t  ");
+            sb.append(task.getEndNanos() == 0 ? "-" : micros(task.getEndNanos() - startNanos)).append("\t\t  ");
+            sb.append(slack < 0 ? "-" : micros(slack)).append("\t\t  ");
+            sb.append(task.getName()).append(FileUtil.getLineSeparator());
+        }
+        sb.append("---------------------------------------------------------").append(FileUtil.getLineSeparator());
+        return sb.toString();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池的指标，统计项目流在线程池中排队与运行的数量，同一个 {@link GlobalSetup} 中同名的线程池共用
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 23:40
+ * @version 1.0.0
+ * @see GlobalSetup#getExecutorMetrics()
+ * @see Item#executor()
+ */
+public final class ExecutorMetrics {
+
+    /**
+     * 线程池的名称
+     */
+    private final String name;
+
+    /**
+     * 已提交到线程池尚未开始运行的数量
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 正在线程池中运行的数量，包括在完成依赖的线程上直接运行的项目流
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    ExecutorMetrics(String name) {
+        this.name = name;
+    }
+
+    void enqueue() {
+        queued.incrementAndGet();
+    }
+
+    void dequeue() {
+        queued.decrementAndGet();
+    }
+
+    void enter() {
+        active.incrementAndGet();
+    }
+
+    void exit() {
+        active.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " [queued=" + getQueuedCount() + ", active=" + getActiveCount() + "]";
+    }
+}
@@ -1,5 +1,10 @@
 package io.github.lostblackknight.item.stream;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 /**
@@ -12,10 +17,25 @@ import java.util.concurrent.Executor;
 public class GlobalSetup {
 
     /**
-     * 线程池
+     * 默认线程池的名称，即 {@link #executor} 的名称
+     */
+    public static final String DEFAULT_EXECUTOR = "default";
+
+    /**
+     * 默认线程池，名称为 {@link #DEFAULT_EXECUTOR}
      */
     private Executor executor = null;
 
+    /**
+     * 命名的线程池，项目流通过 {@link Item#executor()} 选择，未选择时使用 {@link #executor}
+     */
+    private Map<String, Executor> executors = new LinkedHashMap<>();
+
+    /**
+     * 是否使用虚拟线程，需要 JDK 21 及以上，开启后每个 RUNNABLE 的项目流都在新的虚拟线程中运行，忽略 {@link #executor}
+     */
+    private boolean virtualThreads = false;
+
     /**
      * 是否打印耗时
      */
@@ -26,6 +46,71 @@ public class GlobalSetup {
      */
     private boolean tx = false;
 
+    /**
+     * 是否允许项目流在完成依赖的线程上直接运行，每个线程每次只保留一个就绪的被依赖项目流，其余的提交到线程池
+     */
+    private boolean inline = true;
+
+    /**
+     * 在完成依赖的线程上直接运行的耗时阈值，历史平均耗时超过阈值的项目流总是提交到线程池
+     */
+    private long inlineThresholdMicros = 1000;
+
+    /**
+     * 是否记录指标，默认关闭，关闭时项目流不创建指标，运行时只做一次判空；
+     * 开启后每次状态变化与运行都会更新共享的计数器与直方图，见 {@link ItemStreamPlan#getMetrics()}
+     */
+    private boolean metrics;
+
+    /**
+     * 是否使用编译时生成的 mapper 索引查找包中的 mapper，见 {@link ItemStreamIndexProcessor}，
+     * 类路径上有位置没有记录该包的索引时仍然扫描类路径
+     */
+    private boolean mapperIndex = true;
+
+    /**
+     * 是否使用注解处理器生成的项目流定义创建节点与实例，见 {@link ItemStreamFlowProcessor}，没有生成定义的项目流仍然使用反射
+     */
+    private boolean generatedDefinitions = true;
+
+    /**
+     * 是否在编译时裁剪 collector 不依赖的 mapper，只运行 collector 依赖闭包中的 mapper 与 {@link Item#sideEffect()} 的 mapper 及其依赖。
+     * 没有 collector 时不裁剪
+     */
+    private boolean pruneUnreachable = true;
+
+    /**
+     * 是否取消不再影响 collector 的项目流：项目流的所有被依赖项目流都已决定状态后，其结果不会再影响 collector，
+     * 正在运行时打断，尚未就绪时不再调度。开启事务与 {@link Item#sideEffect()} 的项目流不会被取消
+     */
+    private boolean cancelIrrelevant = true;
+
+    /**
+     * 是否按优先级调度就绪的项目流，线程池繁忙时先运行到 collector 的剩余路径最长的项目流，见 {@link ItemStreamPlan#getUpwardRankNanos(ItemStreamPlan.Node)}
+     * <p>使用虚拟线程时忽略
+     */
+    private boolean priorityScheduling = false;
+
+    /**
+     * 按优先级调度的线程池，包装 {@link #executor} 与 {@link #executors}，每个线程池第一次使用时创建
+     */
+    private final Map<Executor, PriorityExecutor> priorityExecutors = new IdentityHashMap<>();
+
+    /**
+     * 线程池的指标，按线程池的名称，见 {@link ExecutorMetrics}
+     */
+    private final Map<String, ExecutorMetrics> executorMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * 项目流的隔离舱，所有执行计划中相同的项目流共用，见 {@link Bulkhead}
+     */
+    private final Map<Class<?>, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 对象池中最多保留的空闲实例数量
+     */
+    private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+
     public Executor getExecutor() {
         return executor;
     }
@@ -34,6 +119,55 @@ public class GlobalSetup {
         this.executor = executor;
     }
 
+    public Map<String, Executor> getExecutors() {
+        return executors;
+    }
+
+    public void setExecutors(Map<String, Executor> executors) {
+        this.executors = executors;
+    }
+
+    /**
+     * 注册命名的线程池
+     *
+     * @param name     名称，配合 {@link Item#executor()} 使用
+     * @param executor 线程池
+     * @throws ItemStreamException 名称为空或者为 {@link #DEFAULT_EXECUTOR}
+     */
+    public void registerExecutor(String name, Executor executor) throws ItemStreamException {
+        if (name == null || name.isEmpty() || DEFAULT_EXECUTOR.equals(name)) {
+            throw new ItemStreamException("Executor name must not be empty or " + DEFAULT_EXECUTOR + ".");
+        }
+        executors.put(name, executor);
+    }
+
+    /**
+     * 按名称获取线程池
+     *
+     * @param name 名称，{@link #DEFAULT_EXECUTOR} 为 {@link #executor}
+     * @return 线程池，未注册时为空
+     */
+    Executor getExecutor(String name) {
+        return DEFAULT_EXECUTOR.equals(name) ? executor : executors.get(name);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 设置是否使用虚拟线程
+     *
+     * @param virtualThreads 是否使用虚拟线程
+     * @throws ItemStreamException 当前运行时低于 JDK 21
+     */
+    public void setVirtualThreads(boolean virtualThreads) throws ItemStreamException {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            throw new ItemStreamException("Virtual threads require JDK 21+, current is " + System.getProperty("java.version") + ".");
+        }
+        this.virtualThreads = virtualThreads;
+    }
+
     public boolean isPrettyPrint() {
         return prettyPrint;
     }
@@ -49,4 +183,115 @@ public class GlobalSetup {
     public void setTx(boolean tx) {
         this.tx = tx;
     }
+
+    public boolean isInline() {
+        return inline;
+    }
+
+    public void setInline(boolean inline) {
+        this.inline = inline;
+    }
+
+    public long getInlineThresholdMicros() {
+        return inlineThresholdMicros;
+    }
+
+    public void setInlineThresholdMicros(long inlineThresholdMicros) {
+        this.inlineThresholdMicros = inlineThresholdMicros;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    public boolean isMapperIndex() {
+        return mapperIndex;
+    }
+
+    public void setMapperIndex(boolean mapperIndex) {
+        this.mapperIndex = mapperIndex;
+    }
+
+    public boolean isGeneratedDefinitions() {
+        return generatedDefinitions;
+    }
+
+    public void setGeneratedDefinitions(boolean generatedDefinitions) {
+        this.generatedDefinitions = generatedDefinitions;
+    }
+
+    public boolean isPruneUnreachable() {
+        return pruneUnreachable;
+    }
+
+    public void setPruneUnreachable(boolean pruneUnreachable) {
+        this.pruneUnreachable = pruneUnreachable;
+    }
+
+    public boolean isCancelIrrelevant() {
+        return cancelIrrelevant;
+    }
+
+    public void setCancelIrrelevant(boolean cancelIrrelevant) {
+        this.cancelIrrelevant = cancelIrrelevant;
+    }
+
+    public boolean isPriorityScheduling() {
+        return priorityScheduling;
+    }
+
+    public void setPriorityScheduling(boolean priorityScheduling) {
+        this.priorityScheduling = priorityScheduling;
+    }
+
+    /**
+     * 获取按优先级调度的线程池，同一个线程池的所有执行计划共用一个优先队列
+     *
+     * @param executor 原线程池
+     * @return 线程池，原线程池为空时为空
+     */
+    synchronized PriorityExecutor getPriorityExecutor(Executor executor) {
+        if (executor == null) {
+            return null;
+        }
+        return priorityExecutors.computeIfAbsent(executor, PriorityExecutor::new);
+    }
+
+    /**
+     * 获取线程池的指标
+     *
+     * @return 按线程池的名称，只包含项目流使用过的线程池，未开启 {@link #isMetrics()} 时为空
+     */
+    public Map<String, ExecutorMetrics> getExecutorMetrics() {
+        return Collections.unmodifiableMap(executorMetrics);
+    }
+
+    ExecutorMetrics executorMetrics(String name) {
+        return executorMetrics.computeIfAbsent(name, ExecutorMetrics::new);
+    }
+
+    /**
+     * 获取项目流的隔离舱
+     *
+     * @return 按项目流，配置了 {@link Item#maxConcurrency()} 时才有项目流的隔离舱
+     */
+    public Map<Class<?>, Bulkhead> getBulkheads() {
+        return Collections.unmodifiableMap(bulkheads);
+    }
+
+    Bulkhead bulkhead(Class<?> type, String name, int maxConcurrency) {
+        return bulkheads.computeIfAbsent(type, key -> new Bulkhead(name, maxConcurrency));
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
 }
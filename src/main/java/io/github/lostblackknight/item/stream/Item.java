@@ -58,4 +58,109 @@ public @interface Item {
      * <h3>注意：注解的优先级大于 {@link GlobalSetup#isTx()}
      */
     String tx() default "";
+
+    /**
+     * 是否允许在完成依赖的线程上直接运行
+     * <p>为 false 总是提交到线程池
+     * <p>为 true 在历史平均耗时不超过 {@link GlobalSetup#getInlineThresholdMicros()} 时，由完成依赖的线程直接运行
+     * <p>为 "" 采取 {@link GlobalSetup#isInline()} 的配置
+     * <h3>注意：注解的优先级大于 {@link GlobalSetup#isInline()}
+     */
+    String inline() default "";
+
+    /**
+     * 运行项目流的线程池的名称，见 {@link GlobalSetup#registerExecutor(String, java.util.concurrent.Executor)}
+     * <p>为 "" 使用 {@link GlobalSetup#getExecutor()}；开启 {@link GlobalSetup#isVirtualThreads()} 时忽略
+     */
+    String executor() default "";
+
+    /**
+     * 同一个项目流在所有运行中最多同时占用的并发数，为 0 不限制，见 {@link Bulkhead}
+     * <p>并发数已满时就绪的项目流排队等待，不占用线程池；在完成依赖的线程上直接运行时同样占用并发数，对冲在并发数已满时不再发起
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * 超时时间，单位毫秒，为 0 不超时
+     * <p>超时后项目流以 {@link ItemStreamTimeoutException} 打断，运行项目流的线程会被打断
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * 运行失败后最多重试的次数，为 0 不重试
+     * <p>只重新运行本项目流，依赖的项目流的结果保持不变；等待重试期间不占用线程，见 {@link State#RETRY}。
+     * 超时与取消不会重试
+     */
+    int retries() default 0;
+
+    /**
+     * 第一次重试前等待的时间，单位毫秒，配合 {@link #retries()} 使用
+     */
+    long backoffMillis() default 0;
+
+    /**
+     * 每次重试等待的时间相对上一次的倍数，配合 {@link #backoffMillis()} 使用
+     */
+    double backoffMultiplier() default 2;
+
+    /**
+     * 需要重试的异常，异常本身或者异常的原因是其中之一时重试，为空时重试所有异常，配合 {@link #retries()} 使用
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+
+    /**
+     * 对冲的等待时间，单位毫秒，为 0 不对冲
+     * <p>运行超过等待时间仍未结束时在线程池中再运行一次，先成功的运行胜出并到达终态，其余的运行被打断；所有运行都失败时以最后一个失败打断。
+     * 多次运行写入同一个输出，项目流需要是幂等的。批量运行时不对冲
+     */
+    long hedgeAfterMillis() default 0;
+
+    /**
+     * 按项目流自身历史运行耗时的百分位对冲，取值 (0, 100)，为 0 不使用，需要开启 {@link GlobalSetup#isMetrics()}
+     * <p>历史样本不足时使用 {@link #hedgeAfterMillis()}
+     */
+    double hedgePercentile() default 0;
+
+    /**
+     * 最多对冲的次数，配合 {@link #hedgeAfterMillis()} 或 {@link #hedgePercentile()} 使用，每次对冲间隔相同的等待时间
+     */
+    int maxHedges() default 1;
+
+    /**
+     * 结果缓存的最大条目数，为 0 不缓存，需要继承 {@link CacheableItemStreamMapper}
+     * <p>超过后按最近最少使用淘汰，命中时不提交到线程池
+     */
+    int cacheSize() default 0;
+
+    /**
+     * 结果缓存的有效期，单位毫秒，为 0 不过期，配合 {@link #cacheSize()} 使用
+     */
+    long cacheTtlMillis() default 0;
+
+    /**
+     * 结果缓存过期后仍然使用旧值的时间，单位毫秒，为 0 不使用旧值，配合 {@link #cacheTtlMillis()} 使用
+     * <p>使用旧值的同时在后台重新加载
+     */
+    long cacheStaleMillis() default 0;
+
+    /**
+     * 是否只有副作用，例如写日志、发送消息
+     * <p>collector 不依赖的项目流在编译时被裁剪，见 {@link GlobalSetup#isPruneUnreachable()}，只有副作用的项目流及其依赖仍然运行；
+     * 运行中也不会因为不再影响 collector 被取消，见 {@link GlobalSetup#isCancelIrrelevant()}
+     */
+    boolean sideEffect() default false;
+
+    /**
+     * 实例作用域
+     * <p>为 {@link Scope#SINGLETON} 时同一个执行计划的所有运行共享一个实例
+     * <p>为 {@link Scope#POOLED} 时从有界的对象池中借用实例
+     * <p>为 {@link Scope#PROTOTYPE} 时每次运行创建新的实例
+     */
+    Scope scope() default Scope.PROTOTYPE;
+
+    /**
+     * 对象池中最多保留的空闲实例数量，配合 {@link #scope()} 为 {@link Scope#POOLED} 时使用
+     * <p>为 0 采取 {@link GlobalSetup#getPoolSize()} 的配置
+     */
+    int poolSize() default 0;
 }
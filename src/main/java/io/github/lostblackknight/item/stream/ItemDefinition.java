@@ -0,0 +1,37 @@
+package io.github.lostblackknight.item.stream;
+
+/**
+ * 编译时生成的项目流定义，由 {@link ItemStreamFlowProcessor} 生成
+ * <p>{@link Item} 的属性在编译时已经确定，实例通过构造器直接创建，编译执行计划与创建实例时都不需要反射；
+ * 运行时的调度与反射得到的定义相同
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:40
+ * @version 1.0.0
+ * @see ItemStreamFlow
+ */
+public abstract class ItemDefinition {
+
+    private final Class<? extends ItemStream> type;
+
+    private final Item item;
+
+    protected ItemDefinition(Class<? extends ItemStream> type, Item item) {
+        this.type = type;
+        this.item = item;
+    }
+
+    /**
+     * 创建实例
+     *
+     * @return 实例
+     */
+    public abstract ItemStream newInstance();
+
+    public Class<? extends ItemStream> getType() {
+        return type;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.lostblackknight.item.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * 类加载器中所有编译时生成的项目流定义，每个类加载器只查找一次，只在编译执行计划与创建实例时使用
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:40
+ * @version 1.0.0
+ * @see ItemStreamFlow
+ */
+final class ItemDefinitions {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemDefinitions.class);
+
+    private static final Map<ClassLoader, ItemDefinitions> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ItemDefinitions EMPTY = new ItemDefinitions(Collections.emptyMap());
+
+    private final Map<Class<?>, ItemDefinition> definitions;
+
+    private ItemDefinitions(Map<Class<?>, ItemDefinition> definitions) {
+        this.definitions = definitions;
+    }
+
+    /**
+     * 获取项目流的定义
+     *
+     * @param type 项目流
+     * @return 定义，没有生成时为空
+     */
+    static ItemDefinition get(Class<?> type) {
+        final ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        return CACHE.computeIfAbsent(classLoader, ItemDefinitions::load).definitions.get(type);
+    }
+
+    private static ItemDefinitions load(ClassLoader classLoader) {
+        final Map<Class<?>, ItemDefinition> definitions = new HashMap<>();
+        try {
+            for (ItemStreamFlow flow : ServiceLoader.load(ItemStreamFlow.class, classLoader)) {
+                for (ItemDefinition definition : flow.getDefinitions()) {
+                    definitions.putIfAbsent(definition.getType(), definition);
+                }
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            log.warn("Failed to load generated item stream flows, fall back to reflection.", e);
+            return EMPTY;
+        }
+        return definitions.isEmpty() ? EMPTY : new ItemDefinitions(definitions);
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.lostblackknight.item.stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 项目流的结果缓存，由 {@link ItemStreamPlan.Node} 持有，同一个执行计划的所有运行共享
+ * <p>基于 Guava {@link Cache}，超过 {@link Item#cacheSize()} 时按最近最少使用淘汰，写入超过 {@link Item#cacheTtlMillis()} 后过期。
+ * 过期后的 {@link Item#cacheStaleMillis()} 内仍然使用旧值，同时在后台重新加载，每个键同时只有一个重新加载
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 19:40
+ * @version 1.0.0
+ * @see CacheableItemStreamMapper
+ */
+public final class ItemStreamCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemStreamCache.class);
+
+    /**
+     * 项目流的名称
+     */
+    private final String name;
+
+    /**
+     * 有效期，为 0 不过期
+     */
+    private final long ttlNanos;
+
+    private final Cache<Object, Entry> cache;
+
+    /**
+     * 命中次数，包括使用旧值
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 使用旧值的次数
+     */
+    private final LongAdder staleHits = new LongAdder();
+
+    /**
+     * 未命中次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 因超过大小或者过期被淘汰的次数
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    ItemStreamCache(String name, int size, long ttlMillis, long staleMillis) {
+        this.name = name;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        evictions.increment();
+                    }
+                });
+        if (ttlMillis > 0) {
+            builder.expireAfterWrite(ttlMillis + staleMillis, TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * 查找，并记录命中与未命中
+     *
+     * @param key 键
+     * @return 缓存项，未命中时为空
+     */
+    Entry get(Object key) {
+        final Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (entry.isStale()) {
+            staleHits.increment();
+        }
+        return entry;
+    }
+
+    void put(Object key, Object value) {
+        cache.put(key, new Entry(value, System.nanoTime()));
+    }
+
+    /**
+     * 在后台重新加载旧值，同一个缓存项只会重新加载一次，失败时保留旧值，下一次使用旧值时再次重新加载
+     *
+     * @param key      键
+     * @param entry    旧的缓存项
+     * @param loader   加载
+     * @param executor 线程池，为空或者拒绝时在当前线程上重新加载
+     */
+    void refresh(Object key, Entry entry, Callable<?> loader, Executor executor) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Timeouts.handOff(executor, () -> {
+            try {
+                put(key, loader.call());
+            } catch (Exception e) {
+                log.warn("[{}]: refresh {} failed.", name, key, e);
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + " [size=" + size()
+                + ", hit=" + getHitCount()
+                + ", staleHit=" + getStaleHitCount()
+                + ", miss=" + getMissCount()
+                + ", eviction=" + getEvictionCount() + "]";
+    }
+
+    /**
+     * 缓存项
+     */
+    final class Entry {
+
+        private final Object value;
+
+        /**
+         * 写入的时间
+         */
+        private final long writeNanos;
+
+        /**
+         * 是否正在重新加载
+         */
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(Object value, long writeNanos) {
+            this.value = value;
+            this.writeNanos = writeNanos;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        /**
+         * 是否已过有效期，过期后仍在缓存中的缓存项处于使用旧值的时间内
+         */
+        boolean isStale() {
+            return ttlNanos > 0 && System.nanoTime() - writeNanos > ttlNanos;
+        }
+    }
+}
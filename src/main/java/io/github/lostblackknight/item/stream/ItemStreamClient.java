@@ -1,18 +1,19 @@
 package io.github.lostblackknight.item.stream;
 
-import cn.hutool.core.annotation.AnnotationUtil;
-import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.ObjUtil;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
-import static io.github.lostblackknight.item.stream.State.RUNNABLE;
-
 /**
  * 项目流客户端
+ * <p>{@link #newRun()} 创建独立的运行，不依赖线程变量；{@link #init()} 创建的运行保存在当前线程上，
+ * 之后的设置与运行必须在同一个线程上进行，子线程不会继承
  *
  * @author chensixiang (chensixiang1234@gmail.com) 2023/3/23 16:55
  * @version 1.0.0
@@ -20,14 +21,19 @@ import static io.github.lostblackknight.item.stream.State.RUNNABLE;
 public class ItemStreamClient<I, O> {
 
     /**
-     * Context Holder
+     * 当前线程上的运行，见 {@link #init()}
      */
-    private final ThreadLocal<Context<I, O>> contextHolder = new InheritableThreadLocal<>();
+    private final ThreadLocal<ItemStreamRun<I, O>> runHolder = new ThreadLocal<>();
 
     /**
      * mapperClass Cache
      */
-    private final Map<String, Set<Class<?>>> mapperClassCache = new ConcurrentHashMap<>(256);
+    private final Map<String, List<Class<?>>> mapperClassCache = new ConcurrentHashMap<>(256);
+
+    /**
+     * 执行计划 Cache
+     */
+    private final Map<PlanKey, ItemStreamPlan> planCache = new ConcurrentHashMap<>(64);
 
     /**
      * 全局配置
@@ -59,12 +65,21 @@ public class ItemStreamClient<I, O> {
     }
 
     /**
-     * 初始化
+     * 创建一次运行，运行持有自己的上下文，可以在任意线程上设置与开始
+     *
+     * @return 运行
+     */
+    public ItemStreamRun<I, O> newRun() {
+        return new ItemStreamRun<>(this);
+    }
+
+    /**
+     * 初始化，在当前线程上创建一次运行，见 {@link #newRun()}
      *
      * @return this
      */
     public ItemStreamClient<I, O> init() {
-        putContext(new Context<>());
+        runHolder.set(newRun());
         return this;
     }
 
@@ -75,7 +90,7 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> input(I input) {
-        getContext().setInput(input);
+        getRun().input(input);
         return this;
     }
 
@@ -86,7 +101,7 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> input(Supplier<I> inputSupplier) {
-        getContext().setInput(inputSupplier.get());
+        getRun().input(inputSupplier);
         return this;
     }
 
@@ -97,7 +112,7 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> output(O output) {
-        getContext().setOutput(output);
+        getRun().output(output);
         return this;
     }
 
@@ -108,7 +123,7 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> output(Supplier<O> outputSupplier) {
-        getContext().setOutput(outputSupplier.get());
+        getRun().output(outputSupplier);
         return this;
     }
 
@@ -118,45 +133,8 @@ public class ItemStreamClient<I, O> {
      * @param mapperClasses mapperClasses
      * @return this
      */
-    @SuppressWarnings("unchecked")
     public ItemStreamClient<I, O> mapperClass(List<Class<?>> mapperClasses) throws ItemStreamException {
-        for (Class<?> mapperClass : mapperClasses) {
-            final Item item = AnnotationUtil.getAnnotation(mapperClass, Item.class);
-            final Class<? extends ItemStream>[] dependsOn = item.dependsOn();
-            final ItemStreamMapper<I, O> mapper;
-            try {
-                mapper = (ItemStreamMapper<I, O>) mapperClass.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new ItemStreamException("Mapper creation failed.");
-            }
-            for (Class<? extends ItemStream> dependsOnClass : dependsOn) {
-                mapper.putDependsOn(dependsOnClass);
-                if (ObjUtil.isNotEmpty(getContext().getBeDependsOn().get(dependsOnClass))) {
-                    getContext().getBeDependsOn().get(dependsOnClass).add(mapperClass);
-                } else {
-                    getContext().getBeDependsOn().put(dependsOnClass, new HashSet<>(Collections.singleton(mapperClass)));
-                }
-            }
-            mapper.setContext(getContext());
-            setup(item, mapper);
-            mapper.setup(getContext());
-            getContext().getMappers().put(mapperClass, mapper);
-        }
-        getContext().getMappers().forEach((clazz, mapper) -> {
-            final Set<Class<?>> beDependsOnClasses = getContext().getBeDependsOn().get(clazz);
-            if (ObjUtil.isNotEmpty(beDependsOnClasses)) {
-                final List<ItemStream> itemStreams = new ArrayList<>();
-                beDependsOnClasses.forEach(beDependsOnClass -> itemStreams.add(getContext().getMappers().get(beDependsOnClass)));
-                mapper.register(itemStreams);
-            }
-            if (ObjUtil.isNotEmpty(getContext().getCollector())) {
-                final Item item = AnnotationUtil.getAnnotation(getContext().getCollector().getClass(), Item.class);
-                final Class<? extends ItemStream>[] dependsOn = item.dependsOn();
-                if (ArrayUtil.contains(dependsOn, clazz)) {
-                    mapper.register(getContext().getCollector());
-                }
-            }
-        });
+        getRun().mapperClass(mapperClasses);
         return this;
     }
 
@@ -167,13 +145,7 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> mapperClass(String packageName) throws ItemStreamException {
-        if (ObjUtil.isNotEmpty(mapperClassCache.get(packageName))) {
-            return mapperClass(new ArrayList<>(mapperClassCache.get(packageName)));
-        } else {
-            final Set<Class<?>> mapperClasses = ClassUtil.scanPackageBySuper(packageName, ItemStreamMapper.class);
-            mapperClassCache.put(packageName, mapperClasses);
-            return mapperClass(new ArrayList<>(mapperClasses));
-        }
+        return mapperClass(scan(packageName));
     }
 
     /**
@@ -183,79 +155,224 @@ public class ItemStreamClient<I, O> {
      * @return this
      */
     public ItemStreamClient<I, O> collectorClass(Class<? extends ItemStreamCollector<I, O>> collectorClass) throws ItemStreamException {
-        final Item item = AnnotationUtil.getAnnotation(collectorClass, Item.class);
-        final Class<? extends ItemStream>[] dependsOn = item.dependsOn();
-        final ItemStreamCollector<I, O> collector;
-        try {
-            collector = collectorClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new ItemStreamException("Collector creation failed.");
-        }
-        for (Class<? extends ItemStream> dependsOnClass : dependsOn) {
-            collector.putDependsOn(dependsOnClass);
-        }
-        collector.setContext(getContext());
-        setup(item, collector);
-        collector.setup(getContext());
-        getContext().setCollector(collector);
-        for (Class<? extends ItemStream> dependsOnClass : dependsOn) {
-            final ItemStreamMapper<?, ?> itemStreamMapper = getContext().getMappers().get(dependsOnClass);
-            if (ObjUtil.isNotEmpty(itemStreamMapper)) {
-                itemStreamMapper.register(collector);
-            }
-        }
+        getRun().collectorClass(collectorClass);
         return this;
     }
 
-    private void setup(Item item, ItemStream itemStream) {
-        itemStream.setRunnableMode(item.runnableMode());
-        itemStream.setRunnableMust(Arrays.asList(item.runnableMust()));
-        itemStream.setInterruptedMode(item.interruptedMode());
-        itemStream.setInterruptedMust(Arrays.asList(item.interruptedMust()));
-        if (ObjUtil.isNotEmpty(item.prettyPrint())) {
-            itemStream.setPrettyPrint(Boolean.parseBoolean(item.prettyPrint()));
-        } else {
-            itemStream.setPrettyPrint(globalSetup.isPrettyPrint());
-        }
-        if (ObjUtil.isNotEmpty(item.tx())) {
-            itemStream.setTx(Boolean.parseBoolean(item.tx()));
-        } else {
-            itemStream.setTx(globalSetup.isTx());
+    /**
+     * 设置执行计划，优先级高于 {@link #mapperClass(List)} 与 {@link #collectorClass(Class)}
+     *
+     * @param plan 执行计划
+     * @return this
+     */
+    public ItemStreamClient<I, O> plan(ItemStreamPlan plan) {
+        getRun().plan(plan);
+        return this;
+    }
+
+    /**
+     * 合并相同键的并发运行，相同执行计划上相同键的运行正在进行时不再运行，共享正在进行的运行的输出，调用方只能读取该输出
+     * <p>批量运行时忽略，见 {@link SingleFlight}
+     *
+     * @param key 合并运行的键，通常由输入中决定输出的部分组成
+     * @return this
+     */
+    public ItemStreamClient<I, O> coalesce(Object key) {
+        getRun().coalesce(key);
+        return this;
+    }
+
+    /**
+     * 合并相同键的并发运行，相同执行计划上相同键的运行正在进行时不再运行，把正在进行的运行的输出复制到本次运行的输出中
+     * <p>批量运行时忽略，见 {@link SingleFlight}
+     *
+     * @param key    合并运行的键，通常由输入中决定输出的部分组成
+     * @param copier 复制方式，第一个参数为正在进行的运行的输出，第二个参数为本次运行的输出
+     * @return this
+     */
+    public ItemStreamClient<I, O> coalesce(Object key, BiConsumer<? super O, ? super O> copier) {
+        getRun().coalesce(key, copier);
+        return this;
+    }
+
+    /**
+     * 编译执行计划，相同的参数只会编译一次
+     *
+     * @param mapperClasses  mapperClasses
+     * @param collectorClass collectorClass
+     * @return 执行计划
+     */
+    public ItemStreamPlan compile(List<Class<?>> mapperClasses, Class<? extends ItemStreamCollector<I, O>> collectorClass) throws ItemStreamException {
+        return planCache.computeIfAbsent(new PlanKey(mapperClasses, collectorClass),
+                key -> ItemStreamPlan.compile(globalSetup, key.mapperClasses, key.collectorClass));
+    }
+
+    /**
+     * 编译执行计划，相同的参数只会编译一次
+     *
+     * @param packageName    mapperClass 所在的包名
+     * @param collectorClass collectorClass
+     * @return 执行计划
+     */
+    public ItemStreamPlan compile(String packageName, Class<? extends ItemStreamCollector<I, O>> collectorClass) throws ItemStreamException {
+        return compile(scan(packageName), collectorClass);
+    }
+
+    /**
+     * 查找包中的 mapper，索引包含该包中所有的 mapper 时使用编译时生成的索引，否则扫描类路径，见 {@link ItemStreamIndex#isComplete(String)}
+     */
+    List<Class<?>> scan(String packageName) {
+        return mapperClassCache.computeIfAbsent(packageName, key -> {
+            final ItemStreamIndex index = globalSetup.isMapperIndex() ? ItemStreamIndex.get(ClassUtil.getClassLoader()) : null;
+            final Collection<Class<?>> mapperClasses = ObjUtil.isNotEmpty(index) && index.isComplete(key)
+                    ? index.getMapperClasses(key)
+                    : ClassUtil.scanPackageBySuper(key, ItemStreamMapper.class);
+            return Collections.unmodifiableList(new ArrayList<>(mapperClasses));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    ItemStreamPlan resolvePlan(Context<I, O> context) {
+        if (ObjUtil.isNotEmpty(context.getPlan())) {
+            return context.getPlan();
         }
-        itemStream.setExecutor(globalSetup.getExecutor());
+        final List<Class<?>> mapperClasses = ObjUtil.defaultIfNull(context.getMapperClasses(), Collections.emptyList());
+        return compile(mapperClasses, (Class<? extends ItemStreamCollector<I, O>>) context.getCollectorClass());
     }
 
     /**
-     * 运行
+     * 运行，阻塞直到 collector 到达终态，见 {@link ItemStreamRun#run()}
      *
      * @return 输出
      */
     public O run() throws InterruptedException {
-        getContext().getMappers().values().stream()
-                .filter(ItemStream::isSingle)
-                .forEach(mapper -> mapper.setState(RUNNABLE));
-        if (ObjUtil.isNotEmpty(getContext().getCollector()) && ObjUtil.isNotEmpty(getContext().getMappers())) {
-            getContext().getCountDownLatch().await();
-        }
-        return getContext().getOutput();
+        return getRun().run();
     }
 
     /**
-     * 清理
+     * 运行，阻塞直到 collector 到达终态或超过期限，见 {@link ItemStreamRun#run(Duration)}
+     *
+     * @param timeout 期限
+     * @return 输出
+     * @throws ItemStreamTimeoutException 超过期限
      */
-    public void clear() {
-        clearContext();
+    public O run(Duration timeout) throws InterruptedException, ItemStreamTimeoutException {
+        return getRun().run(timeout);
     }
 
-    private void putContext(Context<I, O> context) {
-        contextHolder.set(context);
+    /**
+     * 异步运行，不阻塞当前线程，见 {@link ItemStreamRun#start()}
+     *
+     * @return 输出
+     */
+    public CompletableFuture<O> runAsync() {
+        return getRun().start();
     }
 
+    /**
+     * 异步运行，不阻塞当前线程，见 {@link ItemStreamRun#start(Duration)}
+     *
+     * @param timeout 期限
+     * @return 输出
+     */
+    public CompletableFuture<O> runAsync(Duration timeout) {
+        return getRun().start(timeout);
+    }
+
+    /**
+     * 批量运行，阻塞直到 collector 到达终态
+     * <p>每个项目流在一个批次中只运行一次，见 {@link ItemStreamMapper#mapBatch(List, List, Context, Exception[])}。
+     * 单个通道被打断不影响其他通道，通道被打断的原因见 {@link Context#getLaneInterruptCause(int)}；
+     * 所有通道都被打断时与 {@link #run()} 一样返回输出
+     *
+     * @param inputs         输入，每个元素一个通道
+     * @param outputSupplier 输出提供者，每个通道调用一次
+     * @return 输出，与 inputs 一一对应
+     */
+    public List<O> runBatch(List<I> inputs, Supplier<O> outputSupplier) throws InterruptedException {
+        return getRun().runBatch(inputs, outputSupplier);
+    }
+
+    /**
+     * 异步批量运行，不阻塞当前线程，见 {@link #runBatch(List, Supplier)}
+     *
+     * @param inputs         输入，每个元素一个通道
+     * @param outputSupplier 输出提供者，每个通道调用一次
+     * @return 输出，与 inputs 一一对应
+     */
+    public CompletableFuture<List<O>> runBatchAsync(List<I> inputs, Supplier<O> outputSupplier) {
+        return getRun().startBatch(inputs, outputSupplier);
+    }
+
+    /**
+     * 创建流水线，使用当前上下文设置的执行计划、mapperClass 与 collectorClass
+     *
+     * @param outputSupplier 输出提供者，每个输入调用一次
+     * @return 流水线
+     */
+    public ItemStreamPipeline<I, O> pipeline(Supplier<O> outputSupplier) throws ItemStreamException {
+        return getRun().pipeline(outputSupplier);
+    }
+
+    /**
+     * 清理当前线程上的运行
+     * <p>异步运行时可以在 {@link #runAsync()} 返回后立即清理，开启事务的项目流实例在 collector 到达终态后归还
+     */
+    public void clear() {
+        runHolder.remove();
+    }
+
+    /**
+     * 获取当前线程上运行的上下文
+     *
+     * @return 上下文，没有调用 {@link #init()} 时为空
+     */
     public Context<I, O> getContext() {
-        return contextHolder.get();
+        final ItemStreamRun<I, O> run = runHolder.get();
+        return ObjUtil.isEmpty(run) ? null : run.getContext();
+    }
+
+    private ItemStreamRun<I, O> getRun() {
+        final ItemStreamRun<I, O> run = runHolder.get();
+        if (ObjUtil.isEmpty(run)) {
+            throw new ItemStreamException("No run on current thread, call init() first.");
+        }
+        return run;
     }
 
-    private void clearContext() {
-        contextHolder.remove();
+    /**
+     * 执行计划 Cache 的 key
+     */
+    private static final class PlanKey {
+
+        private final List<Class<?>> mapperClasses;
+
+        private final Class<?> collectorClass;
+
+        private final int hash;
+
+        private PlanKey(List<Class<?>> mapperClasses, Class<?> collectorClass) {
+            // 复制调用方的列表，调用方之后修改列表不会影响已缓存的 key
+            this.mapperClasses = Collections.unmodifiableList(new ArrayList<>(mapperClasses));
+            this.collectorClass = collectorClass;
+            this.hash = Objects.hash(mapperClasses, collectorClass);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            final PlanKey planKey = (PlanKey) o;
+            return mapperClasses.equals(planKey.mapperClasses) && Objects.equals(collectorClass, planKey.collectorClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
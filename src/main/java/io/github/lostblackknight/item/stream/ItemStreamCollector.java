@@ -23,65 +23,85 @@ import static io.github.lostblackknight.item.stream.State.ROLLBACK;
  */
 public abstract class ItemStreamCollector<I, O> extends ItemStream {
 
-    /**
-     * 上下文
-     */
-    private Context<I, O> context;
+    @Override
+    protected void doSetup(ItemStreamTask task) {
+        setup(task.getContext());
+    }
 
     @Override
-    protected void doRunnableInterval() throws Exception {
-        collect(context.getOutput(), context);
+    protected void doRunnableInterval(ItemStreamTask task) throws Exception {
+        final Context<I, O> context = task.getContext();
+        if (context.isBatch()) {
+            final List<O> outputs = task.selectLanes(context.getOutputs());
+            final Exception[] errors = new Exception[outputs.size()];
+            collectBatch(outputs, context, errors);
+            task.interruptLanes(errors);
+            for (Exception error : errors) {
+                if (ObjUtil.isNotEmpty(error)) {
+                    ex(error, context);
+                }
+            }
+        } else {
+            collect(context.getOutput(), context);
+        }
     }
 
     @Override
-    protected void doRunnableFinally() {
-        cleanup(context);
+    protected void doRunnableFinally(ItemStreamTask task) {
+        cleanup(task.getContext());
     }
 
     @Override
-    protected void doInterrupt() {
-        super.doInterrupt();
-        ex(getInterruptCause().peekLast(), context);
-        if (isPrettyPrint()) {
-            getContext().getStopWatches().offer(getStopWatch());
+    protected void doInterrupt(ItemStreamTask task) {
+        final Context<I, O> context = task.getContext();
+        ex(task.getInterruptCause().peekLast(), context);
+        if (task.getNode().isPrettyPrint()) {
+            context.getStopWatches().offer(task.getStopWatch());
+        }
+        if (task.getNode().isTx()) {
+            context.getTxEventBus().register(task);
+            context.getTxEventBus().post(new ItemStreamEvent(getName(), this.getClass(), ROLLBACK, task.getInterruptCause().peekLast()));
         }
-        if (isTx()) {
-            getContext().getTxEventBus().register(this);
-            getContext().getTxEventBus().post(new ItemStreamEvent(getName(), this.getClass(), ROLLBACK, getInterruptCause().peekLast()));
+        if (context.getPlan().isTx()) {
+            context.endTx();
         }
-        context.getCountDownLatch().countDown();
-        if (isPrettyPrint()) {
-            log.info(prettyPrint());
+        final Exception cause = task.getInterruptCause().peekLast();
+        context.getFuture().completeExceptionally(ObjUtil.isNotEmpty(cause) ? cause : new ItemStreamException(getName() + " interrupted."));
+        if (task.getNode().isPrettyPrint()) {
+            log.info(prettyPrint(context));
         }
     }
 
     @Override
-    protected void doTerminated() {
-        super.doTerminated();
-        if (isPrettyPrint()) {
-            getContext().getStopWatches().offer(getStopWatch());
+    protected void doTerminated(ItemStreamTask task) {
+        final Context<I, O> context = task.getContext();
+        if (task.getNode().isPrettyPrint()) {
+            context.getStopWatches().offer(task.getStopWatch());
+        }
+        if (task.getNode().isTx()) {
+            context.getTxEventBus().register(task);
         }
-        if (isTx()) {
-            getContext().getTxEventBus().register(this);
+        if (context.getPlan().isTx()) {
+            context.endTx();
         }
-        context.getCountDownLatch().countDown();
-        if (isPrettyPrint()) {
-            log.info(prettyPrint());
+        context.getFuture().complete(context.getOutput());
+        if (task.getNode().isPrettyPrint()) {
+            log.info(prettyPrint(context));
         }
     }
 
     @Override
-    protected void doRollback() {
-        getStopWatch().start(getName() + "-" + ROLLBACK);
-        rollback(context);
-        getStopWatch().stop();
-        if (isPrettyPrint()) {
-            log.info(getStopWatch().shortSummary(TimeUnit.MILLISECONDS));
+    protected void doRollback(ItemStreamTask task) {
+        task.getStopWatch().start(task.getNode().getStopWatchName(ROLLBACK));
+        rollback(task.getContext());
+        task.getStopWatch().stop();
+        if (task.getNode().isPrettyPrint()) {
+            log.info(task.getStopWatch().shortSummary(TimeUnit.MILLISECONDS));
         }
     }
 
-    protected String prettyPrint() {
-        final Queue<StopWatch> stopWatches = getContext().getStopWatches();
+    protected String prettyPrint(Context<I, O> context) {
+        final Queue<StopWatch> stopWatches = context.getStopWatches();
         final TimeUnit unit = TimeUnit.MILLISECONDS;
         final StringBuilder sb = new StringBuilder("Total Task Summary");
         sb.append(FileUtil.getLineSeparator());
@@ -123,11 +143,15 @@ public abstract class ItemStreamCollector<I, O> extends ItemStream {
             sb.append("Total").append(FileUtil.getLineSeparator());
             sb.append("---------------------------------------------------------").append(FileUtil.getLineSeparator());
         }
+        final CriticalPath criticalPath = context.getCriticalPath();
+        if (ObjUtil.isNotEmpty(criticalPath)) {
+            sb.append(criticalPath);
+        }
         return sb.toString();
     }
 
     /**
-     * 初始化
+     * 每次运行的初始化，一次性的初始化使用 {@link #init()}
      *
      * @param context 上下文
      */
@@ -142,6 +166,24 @@ public abstract class ItemStreamCollector<I, O> extends ItemStream {
      */
     public abstract void collect(O output, Context<I, O> context) throws Exception;
 
+    /**
+     * 批量收集，由 {@link ItemStreamClient#runBatch(List, java.util.function.Supplier)} 调用，每个批次只调用一次
+     * <p>默认逐个调用 {@link #collect(Object, Context)}，单个元素的异常只打断该元素所在的通道
+     *
+     * @param outputs 需要运行的通道上的输出
+     * @param context 上下文
+     * @param errors  与 outputs 一一对应，设置元素以打断对应的通道
+     */
+    public void collectBatch(List<O> outputs, Context<I, O> context, Exception[] errors) throws Exception {
+        for (int i = 0; i < outputs.size(); i++) {
+            try {
+                collect(outputs.get(i), context);
+            } catch (Exception e) {
+                errors[i] = e;
+            }
+        }
+    }
+
     /**
      * 异常处理
      *
@@ -166,12 +208,4 @@ public abstract class ItemStreamCollector<I, O> extends ItemStream {
      */
     public void rollback(Context<I, O> context) {
     }
-
-    public Context<I, O> getContext() {
-        return context;
-    }
-
-    public void setContext(Context<I, O> context) {
-        this.context = context;
-    }
 }
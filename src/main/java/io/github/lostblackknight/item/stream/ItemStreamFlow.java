@@ -0,0 +1,29 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.List;
+
+/**
+ * 编译时生成的定义集合，即一个 collector 及其依赖闭包中所有项目流的 {@link ItemDefinition}，由 {@link ItemStreamFlowProcessor} 生成，
+ * 通过 {@link java.util.ServiceLoader} 查找
+ * <p>只替代读取注解与反射创建实例，不包含调度；执行计划与运行仍由 {@link ItemStreamPlan} 与 {@link ItemStreamTask} 完成
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:40
+ * @version 1.0.0
+ * @see GlobalSetup#setGeneratedDefinitions(boolean)
+ */
+public interface ItemStreamFlow {
+
+    /**
+     * 获取 collector
+     *
+     * @return collectorClass
+     */
+    Class<? extends ItemStream> getCollectorClass();
+
+    /**
+     * 获取项目流的定义
+     *
+     * @return collector 及其依赖闭包中所有项目流的定义
+     */
+    List<ItemDefinition> getDefinitions();
+}
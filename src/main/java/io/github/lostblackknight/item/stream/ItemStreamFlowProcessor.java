@@ -0,0 +1,289 @@
+package io.github.lostblackknight.item.stream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 生成项目流定义的注解处理器，需要通过编译参数 -Aitem.stream.flow=true 开启
+ * <p>为每个标注 {@link Item} 的非抽象 collector 生成 {@code <Collector>_ItemStreamFlow}，包含 collector 依赖闭包中每个项目流的 {@link ItemDefinition}：
+ * {@link Item} 的属性生成为字面量，实例通过构造器直接创建。生成的定义注册到 META-INF/services，运行时由 {@link ItemStreamPlan} 在编译执行计划时使用，
+ * 省去读取注解与反射创建实例的开销。只生成定义，不生成调度的代码：就绪判断、重试、对冲与事务仍由 {@link ItemStreamTask} 完成，
+ * 执行计划的结构与运行时的行为与反射完全相同。无法从生成的类中直接创建实例的项目流，例如非 public 的构造器，不生成定义，仍然使用反射
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:40
+ * @version 1.0.0
+ * @see GlobalSetup#setGeneratedDefinitions(boolean)
+ */
+@SupportedAnnotationTypes("io.github.lostblackknight.item.stream.Item")
+@SupportedOptions(ItemStreamFlowProcessor.OPTION)
+public class ItemStreamFlowProcessor extends AbstractProcessor {
+
+    static final String OPTION = "item.stream.flow";
+
+    private static final String SERVICE = "META-INF/services/" + ItemStreamFlow.class.getName();
+
+    private static final String SUFFIX = "_ItemStreamFlow";
+
+    /**
+     * 生成的定义集合，按类名排序，保证构建结果稳定
+     */
+    private final Set<String> flows = new TreeSet<>();
+
+    private Elements elements;
+
+    private Types types;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION))) {
+            return false;
+        }
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        if (roundEnv.processingOver()) {
+            if (!flows.isEmpty()) {
+                writeServices();
+            }
+            return false;
+        }
+        final TypeMirror collector = types.erasure(elements.getTypeElement(ItemStreamCollector.class.getCanonicalName()).asType());
+        for (Element element : roundEnv.getElementsAnnotatedWith(Item.class)) {
+            if (element.getKind() == ElementKind.CLASS
+                    && !element.getModifiers().contains(Modifier.ABSTRACT)
+                    && types.isSubtype(types.erasure(element.asType()), collector)) {
+                generate((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成 collector 依赖闭包的定义集合
+     */
+    private void generate(TypeElement collector) {
+        final String packageName = elements.getPackageOf(collector).getQualifiedName().toString();
+        final String binaryName = elements.getBinaryName(collector).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + SUFFIX;
+        final String flowName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Generated by ").append(getClass().getName()).append(", do not edit.\n */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(ItemStreamFlow.class.getCanonicalName()).append(" {\n\n");
+        source.append("    private static final java.util.List<").append(ItemDefinition.class.getCanonicalName()).append("> DEFINITIONS = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        boolean first = true;
+        for (TypeElement type : closure(collector)) {
+            if (!isInstantiable(type, packageName)) {
+                continue;
+            }
+            source.append(first ? "\n" : ",\n");
+            definition(source, type);
+            first = false;
+        }
+        source.append("));\n\n");
+        source.append("    @Override\n");
+        source.append("    public Class<? extends ").append(ItemStream.class.getCanonicalName()).append("> getCollectorClass() {\n");
+        source.append("        return ").append(collector.getQualifiedName()).append(".class;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.List<").append(ItemDefinition.class.getCanonicalName()).append("> getDefinitions() {\n");
+        source.append("        return DEFINITIONS;\n");
+        source.append("    }\n");
+        source.append("}\n");
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(flowName, collector);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+            flows.add(flowName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + flowName + ": " + e, collector);
+        }
+    }
+
+    /**
+     * collector 及其依赖闭包中标注 {@link Item} 的项目流，按发现的顺序排列
+     */
+    private List<TypeElement> closure(TypeElement collector) {
+        final Set<TypeElement> visited = new LinkedHashSet<>();
+        final Deque<TypeElement> pending = new ArrayDeque<>();
+        visited.add(collector);
+        pending.offerLast(collector);
+        while (!pending.isEmpty()) {
+            final AnnotationMirror item = item(pending.pollFirst());
+            if (item == null) {
+                continue;
+            }
+            for (AnnotationValue value : values(item, "dependsOn")) {
+                final TypeMirror dependsOn = (TypeMirror) value.getValue();
+                if (dependsOn.getKind() != TypeKind.DECLARED) {
+                    continue;
+                }
+                final TypeElement type = (TypeElement) ((DeclaredType) dependsOn).asElement();
+                if (visited.add(type)) {
+                    pending.offerLast(type);
+                }
+            }
+        }
+        final List<TypeElement> closure = new ArrayList<>();
+        for (TypeElement type : visited) {
+            if (item(type) != null) {
+                closure.add(type);
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * 生成的类能否直接调用无参构造器
+     */
+    private boolean isInstantiable(TypeElement type, String packageName) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        final boolean samePackage = elements.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+        for (Element enclosing = type; enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing != type && !enclosing.getKind().isClass() && !enclosing.getKind().isInterface()) {
+                return false;
+            }
+            if (enclosing.getEnclosingElement().getKind() != ElementKind.PACKAGE && !enclosing.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            if (!isAccessible(enclosing.getModifiers(), samePackage)) {
+                return false;
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return isAccessible(constructor.getModifiers(), samePackage);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAccessible(Set<Modifier> modifiers, boolean samePackage) {
+        return modifiers.contains(Modifier.PUBLIC) || samePackage && !modifiers.contains(Modifier.PRIVATE);
+    }
+
+    /**
+     * 生成项目流的定义，{@link Item} 的每个属性生成为返回字面量的方法，数组每次返回新的实例
+     */
+    private void definition(StringBuilder source, TypeElement type) {
+        final String name = type.getQualifiedName().toString();
+        final Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(item(type));
+        source.append("            new ").append(ItemDefinition.class.getCanonicalName()).append("(").append(name).append(".class, new ").append(Item.class.getCanonicalName()).append("() {\n");
+        source.append("                @Override\n");
+        source.append("                public Class<? extends java.lang.annotation.Annotation> annotationType() {\n");
+        source.append("                    return ").append(Item.class.getCanonicalName()).append(".class;\n");
+        source.append("                }\n");
+        for (ExecutableElement attribute : ElementFilter.methodsIn(elements.getTypeElement(Item.class.getCanonicalName()).getEnclosedElements())) {
+            source.append("\n                @Override\n");
+            source.append("                public ").append(attribute.getReturnType()).append(" ").append(attribute.getSimpleName()).append("() {\n");
+            source.append("                    return ").append(literal(attribute.getReturnType(), values.get(attribute))).append(";\n");
+            source.append("                }\n");
+        }
+        source.append("            }) {\n");
+        source.append("                @Override\n");
+        source.append("                public ").append(ItemStream.class.getCanonicalName()).append(" newInstance() {\n");
+        source.append("                    return new ").append(name).append("();\n");
+        source.append("                }\n");
+        source.append("            }");
+    }
+
+    private String literal(TypeMirror type, AnnotationValue value) {
+        final Object object = value.getValue();
+        if (type.getKind() == TypeKind.ARRAY) {
+            final StringBuilder array = new StringBuilder("new ").append(types.erasure(((ArrayType) type).getComponentType())).append("[]{");
+            final List<?> items = (List<?>) object;
+            for (int i = 0; i < items.size(); i++) {
+                array.append(i == 0 ? "" : ", ").append(literal(((ArrayType) type).getComponentType(), (AnnotationValue) items.get(i)));
+            }
+            return array.append("}").toString();
+        }
+        if (object instanceof TypeMirror) {
+            return types.erasure((TypeMirror) object) + ".class";
+        }
+        if (object instanceof VariableElement) {
+            final VariableElement constant = (VariableElement) object;
+            return ((TypeElement) constant.getEnclosingElement()).getQualifiedName() + "." + constant.getSimpleName();
+        }
+        return elements.getConstantExpression(object);
+    }
+
+    private AnnotationMirror item(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(Item.class.getCanonicalName())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> values(AnnotationMirror mirror, String attribute) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                return (List<? extends AnnotationValue>) entry.getValue().getValue();
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 注册生成的定义集合，增量编译时保留上一次注册的仍然存在的定义集合
+     */
+    private void writeServices() {
+        try {
+            final FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#") && elements.getTypeElement(line) != null) {
+                        flows.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有上一次注册的定义集合
+        }
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+            try (Writer writer = file.openWriter()) {
+                for (String flow : flows) {
+                    writer.write(flow + System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE + ": " + e);
+        }
+    }
+}
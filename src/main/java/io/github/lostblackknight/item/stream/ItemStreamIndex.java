@@ -0,0 +1,164 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * 编译时生成的项目流索引，由 {@link ItemStreamIndexProcessor} 写入每个模块的 {@link #LOCATION}
+ * <p>与 {@link java.util.ServiceLoader} 相同，合并类加载器中所有同名的索引文件，每个类加载器只读取一次。
+ * 查找时只加载索引中的类，不遍历类路径
+ * <p>索引同时记录编译时处理过的包。一个包只有在类路径上每个包含它的位置都有索引并且记录了该包时才是完整的，
+ * 部分位置没有索引（例如未经过注解处理器编译的模块或者旧版本生成的索引）时需要扫描类路径，见 {@link #isComplete(String)}
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:10
+ * @version 1.0.0
+ * @see GlobalSetup#setMapperIndex(boolean)
+ */
+final class ItemStreamIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemStreamIndex.class);
+
+    /**
+     * 索引文件的位置，properties 格式，键为类名或包名，值为类型
+     */
+    static final String LOCATION = "META-INF/item-stream.index";
+
+    static final String MAPPER = "mapper";
+
+    static final String COLLECTOR = "collector";
+
+    /**
+     * 包的类型，表示注解处理器处理过该包中的所有类
+     */
+    static final String PACKAGE = "package";
+
+    private static final Map<ClassLoader, ItemStreamIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 类名与类型
+     */
+    private final Map<String, String> entries;
+
+    /**
+     * 索引文件所在的位置与其中记录的包
+     */
+    private final Map<String, Set<String>> packages;
+
+    private ItemStreamIndex(ClassLoader classLoader, Map<String, String> entries, Map<String, Set<String>> packages) {
+        this.classLoader = classLoader;
+        this.entries = entries;
+        this.packages = packages;
+    }
+
+    /**
+     * 获取类加载器中的索引
+     *
+     * @param classLoader 类加载器
+     * @return 索引，没有索引文件时为空的索引
+     */
+    static ItemStreamIndex get(ClassLoader classLoader) {
+        return CACHE.computeIfAbsent(classLoader, ItemStreamIndex::load);
+    }
+
+    private static ItemStreamIndex load(ClassLoader classLoader) {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        final Map<String, Set<String>> packages = new HashMap<>();
+        try {
+            final Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            while (urls.hasMoreElements()) {
+                final URL url = urls.nextElement();
+                final Properties properties = new Properties();
+                try (InputStream in = url.openStream()) {
+                    properties.load(in);
+                }
+                final Set<String> indexed = packages.computeIfAbsent(root(url, LOCATION), key -> new HashSet<>());
+                for (String name : properties.stringPropertyNames()) {
+                    final String type = properties.getProperty(name);
+                    if (PACKAGE.equals(type)) {
+                        indexed.add(name);
+                    } else {
+                        entries.put(name, type);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read {}, fall back to scanning.", LOCATION, e);
+            entries.clear();
+            packages.clear();
+        }
+        return new ItemStreamIndex(classLoader, entries, packages);
+    }
+
+    /**
+     * 资源所在的位置，即类路径上的目录或者 jar
+     *
+     * @param url  资源
+     * @param path 资源的路径
+     * @return 位置
+     */
+    private static String root(URL url, String path) {
+        String location = url.toString();
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : location;
+    }
+
+    /**
+     * 索引是否包含包及其子包中所有的 mapper
+     * <p>类路径上每个包含该包的位置都需要有索引，并且记录了该包或者其子包；只要有一个位置没有，就不完整
+     *
+     * @param packageName 包名
+     * @return 是否完整，类路径上没有该包时不完整
+     */
+    boolean isComplete(String packageName) {
+        final String path = packageName.replace('.', '/');
+        final String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        boolean found = false;
+        try {
+            final Enumeration<URL> urls = classLoader.getResources(path);
+            while (urls.hasMoreElements()) {
+                final Set<String> indexed = packages.get(root(urls.nextElement(), path));
+                if (ObjUtil.isEmpty(indexed)
+                        || indexed.stream().noneMatch(name -> name.equals(packageName) || name.startsWith(prefix))) {
+                    return false;
+                }
+                found = true;
+            }
+        } catch (IOException e) {
+            log.debug("Failed to resolve {}, fall back to scanning.", packageName, e);
+            return false;
+        }
+        return found;
+    }
+
+    /**
+     * 获取包及其子包中的 mapper
+     *
+     * @param packageName 包名
+     * @return mapper，索引中没有时为空
+     */
+    List<Class<?>> getMapperClasses(String packageName) {
+        final String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        final List<Class<?>> mapperClasses = new ArrayList<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!MAPPER.equals(entry.getValue()) || !entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            try {
+                mapperClasses.add(Class.forName(entry.getKey(), false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.debug("Skip stale index entry {}.", entry.getKey(), e);
+            }
+        }
+        return mapperClasses;
+    }
+}
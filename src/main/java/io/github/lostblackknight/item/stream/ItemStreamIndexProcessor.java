@@ -0,0 +1,142 @@
+package io.github.lostblackknight.item.stream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 生成项目流索引的注解处理器
+ * <p>编译时收集所有非抽象的 mapper 与 collector，不要求标注 {@link Item}，写入 {@link ItemStreamIndex#LOCATION}，
+ * 同时记录处理过的包，表示索引包含这些包在本模块中所有的 mapper。
+ * 运行时 {@link ItemStreamClient#mapperClass(String)} 在索引完整时直接读取索引，不再扫描类路径。
+ * 增量编译时合并已有的索引，并去掉已经不存在的类与包
+ * <p>通过 META-INF/services 注册，item-stream 在编译类路径上时自动生效；
+ * 指定了 annotationProcessorPaths 或者 JDK 22 及以上默认关闭自动发现时，需要把 item-stream 加入注解处理器路径
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:10
+ * @version 1.0.0
+ * @see ItemStreamIndex
+ */
+@SupportedAnnotationTypes("*")
+public class ItemStreamIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 类名或包名与类型，按名称排序，保证构建结果稳定
+     */
+    private final Map<String, String> entries = new TreeMap<>();
+
+    /**
+     * 是否收集到了 mapper 或者 collector，没有时不生成索引
+     */
+    private boolean found;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (found) {
+                write();
+            }
+            return false;
+        }
+        final Elements elements = processingEnv.getElementUtils();
+        final Types types = processingEnv.getTypeUtils();
+        final TypeElement mapperType = elements.getTypeElement(ItemStreamMapper.class.getCanonicalName());
+        final TypeElement collectorType = elements.getTypeElement(ItemStreamCollector.class.getCanonicalName());
+        if (mapperType == null || collectorType == null) {
+            return false;
+        }
+        final TypeMirror mapper = types.erasure(mapperType.asType());
+        final TypeMirror collector = types.erasure(collectorType.asType());
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                entries.put(elements.getPackageOf(element).getQualifiedName().toString(), ItemStreamIndex.PACKAGE);
+                collect((TypeElement) element, mapper, collector);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集类及其嵌套类中的 mapper 与 collector
+     */
+    private void collect(TypeElement type, TypeMirror mapper, TypeMirror collector) {
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collect((TypeElement) enclosed, mapper, collector);
+            }
+        }
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return;
+        }
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror erasure = types.erasure(type.asType());
+        final String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (types.isSubtype(erasure, mapper)) {
+            entries.put(name, ItemStreamIndex.MAPPER);
+            found = true;
+        } else if (types.isSubtype(erasure, collector)) {
+            entries.put(name, ItemStreamIndex.COLLECTOR);
+            found = true;
+        }
+    }
+
+    private void write() {
+        mergeExisting();
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ItemStreamIndex.LOCATION);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by " + getClass().getName() + ", do not edit." + System.lineSeparator());
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + ItemStreamIndex.LOCATION + ": " + e);
+        }
+    }
+
+    /**
+     * 增量编译时保留上一次索引中未重新编译且仍然存在的类与包
+     */
+    private void mergeExisting() {
+        final Properties existing = new Properties();
+        try {
+            final FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ItemStreamIndex.LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                existing.load(in);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        final Elements elements = processingEnv.getElementUtils();
+        for (String name : existing.stringPropertyNames()) {
+            final String type = existing.getProperty(name);
+            final boolean exists = ItemStreamIndex.PACKAGE.equals(type)
+                    ? elements.getPackageElement(name) != null
+                    : elements.getTypeElement(name.replace('$', '.')) != null;
+            if (exists) {
+                entries.putIfAbsent(name, type);
+            }
+        }
+    }
+}
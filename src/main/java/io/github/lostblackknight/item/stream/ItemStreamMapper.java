@@ -1,5 +1,8 @@
 package io.github.lostblackknight.item.stream;
 
+import cn.hutool.core.util.ObjUtil;
+
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static io.github.lostblackknight.item.stream.State.ROLLBACK;
@@ -13,57 +16,70 @@ import static io.github.lostblackknight.item.stream.State.ROLLBACK;
  */
 public abstract class ItemStreamMapper<I, O> extends ItemStream {
 
-    /**
-     * 上下文
-     */
-    private Context<I, O> context;
+    @Override
+    protected void doSetup(ItemStreamTask task) {
+        setup(task.getContext());
+    }
 
     @Override
-    protected void doRunnableInterval() throws Exception {
-        map(context.getInput(), context.getOutput(), context);
+    protected void doRunnableInterval(ItemStreamTask task) throws Exception {
+        final Context<I, O> context = task.getContext();
+        if (context.isBatch()) {
+            final List<I> inputs = task.selectLanes(context.getInputs());
+            final Exception[] errors = new Exception[inputs.size()];
+            mapBatch(inputs, task.selectLanes(context.getOutputs()), context, errors);
+            task.interruptLanes(errors);
+            for (Exception error : errors) {
+                if (ObjUtil.isNotEmpty(error)) {
+                    ex(error, context);
+                }
+            }
+        } else {
+            map(context.getInput(), context.getOutput(), context);
+        }
     }
 
     @Override
-    protected void doRunnableFinally() {
-        cleanup(context);
+    protected void doRunnableFinally(ItemStreamTask task) {
+        cleanup(task.getContext());
     }
 
     @Override
-    protected void doInterrupt() {
-        super.doInterrupt();
-        ex(getInterruptCause().peekLast(), context);
-        if (isPrettyPrint()) {
-            getContext().getStopWatches().offer(getStopWatch());
+    protected void doInterrupt(ItemStreamTask task) {
+        final Context<I, O> context = task.getContext();
+        ex(task.getInterruptCause().peekLast(), context);
+        if (task.getNode().isPrettyPrint()) {
+            context.getStopWatches().offer(task.getStopWatch());
         }
-        if (isTx()) {
-            getContext().getTxEventBus().register(this);
-            getContext().getTxEventBus().post(new ItemStreamEvent(getName(), this.getClass(), ROLLBACK, getInterruptCause().peekLast()));
+        if (task.getNode().isTx()) {
+            context.getTxEventBus().register(task);
+            context.getTxEventBus().post(new ItemStreamEvent(getName(), this.getClass(), ROLLBACK, task.getInterruptCause().peekLast()));
         }
     }
 
     @Override
-    protected void doTerminated() {
-        super.doTerminated();
-        if (isPrettyPrint()) {
-            getContext().getStopWatches().offer(getStopWatch());
+    protected void doTerminated(ItemStreamTask task) {
+        final Context<I, O> context = task.getContext();
+        if (task.getNode().isPrettyPrint()) {
+            context.getStopWatches().offer(task.getStopWatch());
         }
-        if (isTx()) {
-            getContext().getTxEventBus().register(this);
+        if (task.getNode().isTx()) {
+            context.getTxEventBus().register(task);
         }
     }
 
     @Override
-    protected void doRollback() {
-        getStopWatch().start(getName() + "-" + ROLLBACK);
-        rollback(context);
-        getStopWatch().stop();
-        if (isPrettyPrint()) {
-            log.info(getStopWatch().shortSummary(TimeUnit.MILLISECONDS));
+    protected void doRollback(ItemStreamTask task) {
+        task.getStopWatch().start(task.getNode().getStopWatchName(ROLLBACK));
+        rollback(task.getContext());
+        task.getStopWatch().stop();
+        if (task.getNode().isPrettyPrint()) {
+            log.info(task.getStopWatch().shortSummary(TimeUnit.MILLISECONDS));
         }
     }
 
     /**
-     * 初始化
+     * 每次运行的初始化，一次性的初始化使用 {@link #init()}
      *
      * @param context 上下文
      */
@@ -79,6 +95,26 @@ public abstract class ItemStreamMapper<I, O> extends ItemStream {
      */
     public abstract void map(I input, O output, Context<I, O> context) throws Exception;
 
+    /**
+     * 批量转化，由 {@link ItemStreamClient#runBatch(List, java.util.function.Supplier)} 调用，每个批次只调用一次
+     * <p>默认逐个调用 {@link #map(Object, Object, Context)}，单个元素的异常只打断该元素所在的通道。
+     * 访问数据库等场景可以重写为一次批量查询，通过 errors 打断单个通道，抛出异常时打断所有通道
+     *
+     * @param inputs  需要运行的通道上的输入
+     * @param outputs 需要运行的通道上的输出，与 inputs 一一对应
+     * @param context 上下文
+     * @param errors  与 inputs 一一对应，设置元素以打断对应的通道
+     */
+    public void mapBatch(List<I> inputs, List<O> outputs, Context<I, O> context, Exception[] errors) throws Exception {
+        for (int i = 0; i < inputs.size(); i++) {
+            try {
+                map(inputs.get(i), outputs.get(i), context);
+            } catch (Exception e) {
+                errors[i] = e;
+            }
+        }
+    }
+
     /**
      * 异常处理
      *
@@ -103,12 +139,4 @@ public abstract class ItemStreamMapper<I, O> extends ItemStream {
      */
     public void rollback(Context<I, O> context) {
     }
-
-    public Context<I, O> getContext() {
-        return context;
-    }
-
-    public void setContext(Context<I, O> context) {
-        this.context = context;
-    }
 }
@@ -0,0 +1,59 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.io.FileUtil;
+
+import java.util.*;
+
+/**
+ * 执行计划的指标，跨运行累计，由 {@link ItemStreamPlan} 持有
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 18:10
+ * @version 1.0.0
+ * @see ItemStreamPlan#getMetrics()
+ * @see GlobalSetup#setMetrics(boolean)
+ */
+public final class ItemStreamMetrics {
+
+    /**
+     * 端到端耗时，从开始运行到 collector 到达终态
+     */
+    private final LatencyHistogram runLatency = new LatencyHistogram();
+
+    /**
+     * 项目流的指标
+     */
+    private final Map<Class<?>, NodeMetrics> nodes;
+
+    ItemStreamMetrics(List<ItemStreamPlan.Node> nodes) {
+        final Map<Class<?>, NodeMetrics> metrics = new LinkedHashMap<>(nodes.size() * 2);
+        nodes.forEach(node -> metrics.put(node.getType(), node.getMetrics()));
+        this.nodes = Collections.unmodifiableMap(metrics);
+    }
+
+    public LatencyHistogram getRunLatency() {
+        return runLatency;
+    }
+
+    /**
+     * 获取项目流的指标
+     *
+     * @param itemStream 项目流
+     * @return 指标，不在执行计划中时为空
+     */
+    public NodeMetrics getNode(Class<?> itemStream) {
+        return nodes.get(itemStream);
+    }
+
+    public Collection<NodeMetrics> getNodes() {
+        return nodes.values();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("run={").append(runLatency.snapshot()).append('}');
+        for (NodeMetrics node : nodes.values()) {
+            sb.append(FileUtil.getLineSeparator()).append(node);
+        }
+        return sb.toString();
+    }
+}
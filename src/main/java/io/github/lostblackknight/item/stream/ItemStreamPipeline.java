@@ -0,0 +1,210 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 项目流流水线
+ * <p>将输入逐个送入同一个执行计划，最多 {@link #maxInFlight(int)} 个输入同时处于运行中，不同的输入可以处于 DAG 的不同阶段。
+ * 运行中的输入达到上限时不再读取输入，直到有输入运行结束，读取输入的速度由消费输出的速度决定。
+ * <p>每个输入使用独立的 {@link Context}，与 {@link ItemStreamClient#run()} 一样，collector 被打断时同样输出
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 17:20
+ * @version 1.0.0
+ * @see ItemStreamClient#pipeline(Supplier)
+ */
+public final class ItemStreamPipeline<I, O> {
+
+    /**
+     * 执行计划
+     */
+    private final ItemStreamPlan plan;
+
+    /**
+     * 输出提供者
+     */
+    private final Supplier<O> outputSupplier;
+
+    /**
+     * 最多同时运行的输入数量
+     */
+    private int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 是否按输入的顺序输出
+     */
+    private boolean ordered = true;
+
+    ItemStreamPipeline(ItemStreamPlan plan, Supplier<O> outputSupplier) throws ItemStreamException {
+        if (ObjUtil.isEmpty(plan.getCollector())) {
+            throw new ItemStreamException("Pipeline requires a collector.");
+        }
+        this.plan = plan;
+        this.outputSupplier = outputSupplier;
+    }
+
+    /**
+     * 设置最多同时运行的输入数量
+     *
+     * @param maxInFlight 最多同时运行的输入数量
+     * @return this
+     */
+    public ItemStreamPipeline<I, O> maxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new ItemStreamException("maxInFlight must be positive.");
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * 设置是否按输入的顺序输出
+     * <p>为 true 时先完成的输出在重排序缓冲中等待之前的输入完成，为 false 时按完成的顺序输出
+     *
+     * @param ordered 是否按输入的顺序输出
+     * @return this
+     */
+    public ItemStreamPipeline<I, O> ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 处理输入，读取输出时才会读取输入
+     *
+     * @param inputs 输入
+     * @return 输出
+     */
+    public Iterator<O> iterator(Iterator<I> inputs) {
+        return new Window(inputs);
+    }
+
+    /**
+     * 处理输入，终结操作时才会读取输入，关闭流时取消仍在运行的输入
+     *
+     * @param inputs 输入
+     * @return 输出
+     */
+    public Stream<O> stream(Iterator<I> inputs) {
+        final Window window = new Window(inputs);
+        final int characteristics = ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(window, characteristics), false)
+                .onClose(window::cancel);
+    }
+
+    /**
+     * 处理输入，终结操作时才会读取输入，关闭流时取消仍在运行的输入并关闭输入的流
+     *
+     * @param inputs 输入
+     * @return 输出
+     */
+    public Stream<O> stream(Stream<I> inputs) {
+        return stream(inputs.iterator()).onClose(inputs::close);
+    }
+
+    /**
+     * 处理所有输入，阻塞直到所有输入运行结束
+     * <p>consumer 只在当前线程中调用
+     *
+     * @param inputs   输入
+     * @param consumer 输出的消费者
+     */
+    public void forEach(Iterator<I> inputs, Consumer<? super O> consumer) {
+        new Window(inputs).forEachRemaining(consumer);
+    }
+
+    /**
+     * 运行窗口
+     * <p>有序时运行中的输入按读取的顺序排列，即重排序缓冲；无序时运行结束的输入进入完成队列
+     */
+    private final class Window implements Iterator<O> {
+
+        private final Iterator<I> inputs;
+
+        /**
+         * 运行中的输入，按读取的顺序排列
+         */
+        private final Deque<Context<I, O>> inFlight = new ArrayDeque<>();
+
+        /**
+         * 运行结束的输入，只在无序时使用
+         */
+        private final BlockingQueue<Context<I, O>> completed = new LinkedBlockingQueue<>();
+
+        private Window(Iterator<I> inputs) {
+            this.inputs = inputs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public O next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                final Context<I, O> context;
+                if (ordered) {
+                    context = inFlight.peekFirst();
+                    try {
+                        context.getFuture().get();
+                    } catch (ExecutionException e) {
+                        // collector 被打断时同样输出
+                    }
+                    inFlight.pollFirst();
+                } else {
+                    context = completed.take();
+                    inFlight.remove(context);
+                }
+                return context.getOutput();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new ItemStreamException("Pipeline interrupted.", e);
+            }
+        }
+
+        /**
+         * 读取输入直到运行中的输入达到上限
+         */
+        private void fill() {
+            while (inFlight.size() < maxInFlight && inputs.hasNext()) {
+                final Context<I, O> context = new Context<>();
+                context.setInput(inputs.next());
+                context.setOutput(outputSupplier.get());
+                try {
+                    plan.start(context);
+                } catch (RuntimeException e) {
+                    // 开始失败的输入不进入窗口，已经开始运行的任务随之取消，否则 next() 会一直等待它的 future
+                    context.cancel(e);
+                    throw e;
+                }
+                inFlight.offerLast(context);
+                if (!ordered) {
+                    context.getFuture().whenComplete((output, ex) -> completed.offer(context));
+                }
+            }
+        }
+
+        /**
+         * 取消仍在运行的输入
+         */
+        private void cancel() {
+            for (Context<I, O> context : inFlight) {
+                context.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,1057 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.annotation.AnnotationUtil;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ObjUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 项目流执行计划
+ * <p>编译时一次性完成 {@link Item} 解析、拓扑排序、依赖关系以及运行模式、打断模式、线程池的解析，
+ * 编译后不可变且线程安全，每次运行只需要基于计划创建运行时的状态
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 10:12
+ * @version 1.0.0
+ * @see ItemStreamClient
+ */
+public final class ItemStreamPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemStreamPlan.class);
+
+    /**
+     * 重新计算向上排名的最小间隔
+     */
+    private static final long RANK_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final AtomicLongFieldUpdater<ItemStreamPlan> RANK_REFRESH = AtomicLongFieldUpdater.newUpdater(ItemStreamPlan.class, "rankRefreshNanos");
+
+    /**
+     * 节点，按拓扑顺序排列
+     */
+    private final List<Node> nodes;
+
+    /**
+     * 节点索引
+     */
+    private final Map<Class<?>, Node> nodeIndex;
+
+    /**
+     * collector 节点
+     */
+    private final Node collector;
+
+    /**
+     * 是否有开启事务的节点
+     */
+    private final boolean tx;
+
+    /**
+     * 指标，未开启时为空
+     */
+    private final ItemStreamMetrics metrics;
+
+    /**
+     * 是否有按优先级调度的节点
+     */
+    private final boolean priority;
+
+    /**
+     * 按节点索引排列的向上排名，按优先级调度时计算，重新计算时整体替换，不修改已发布的数组
+     */
+    private volatile long[] upwardRanks;
+
+    /**
+     * 上次计算向上排名的时间，{@link System#nanoTime()}
+     */
+    private volatile long rankRefreshNanos;
+
+    /**
+     * 是否取消不再影响 collector 的项目流，没有 collector 时不取消
+     */
+    private final boolean cancelIrrelevant;
+
+    /**
+     * 默认的线程池，运行期限到期等不在项目流中发生的动作在其中进行，见 {@link GlobalSetup#getExecutor()}
+     */
+    private final Executor executor;
+
+    /**
+     * 合并相同键的并发运行
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private ItemStreamPlan(List<Node> nodes, Node collector, Executor executor, boolean metrics, boolean cancelIrrelevant) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        final Map<Class<?>, Node> index = new HashMap<>(nodes.size() * 2);
+        nodes.forEach(node -> index.put(node.getType(), node));
+        this.nodeIndex = Collections.unmodifiableMap(index);
+        this.collector = collector;
+        this.executor = executor;
+        this.tx = nodes.stream().anyMatch(Node::isTx);
+        this.metrics = metrics ? new ItemStreamMetrics(nodes) : null;
+        this.priority = nodes.stream().anyMatch(node -> node.getExecutor() instanceof PriorityExecutor);
+        this.upwardRanks = priority ? rank() : null;
+        this.rankRefreshNanos = System.nanoTime();
+        this.cancelIrrelevant = cancelIrrelevant && ObjUtil.isNotEmpty(collector);
+    }
+
+    /**
+     * 编译执行计划
+     *
+     * @param globalSetup    全局配置
+     * @param mapperClasses  mapperClasses，开启 {@link GlobalSetup#isPruneUnreachable()} 时只保留 collector 的依赖闭包
+     * @param collectorClass collectorClass，可以为空
+     * @return 执行计划
+     */
+    @SuppressWarnings("unchecked")
+    public static ItemStreamPlan compile(GlobalSetup globalSetup, Collection<Class<?>> mapperClasses, Class<?> collectorClass) throws ItemStreamException {
+        final Map<Class<?>, Node> declared = new LinkedHashMap<>();
+        final Collection<Class<?>> reachable = globalSetup.isPruneUnreachable() && ObjUtil.isNotEmpty(collectorClass)
+                ? reachable(globalSetup, mapperClasses, collectorClass)
+                : mapperClasses;
+        for (Class<?> mapperClass : reachable) {
+            declared.put(mapperClass, new Node((Class<? extends ItemStream>) mapperClass, definition(globalSetup, mapperClass), false, globalSetup));
+        }
+        Node collector = null;
+        if (ObjUtil.isNotEmpty(collectorClass)) {
+            collector = new Node((Class<? extends ItemStream>) collectorClass, definition(globalSetup, collectorClass), true, globalSetup);
+            declared.put(collectorClass, collector);
+        }
+        final List<Node> nodes = sort(declared);
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).index = i;
+        }
+        return new ItemStreamPlan(nodes, collector, globalSetup.getExecutor(), globalSetup.isMetrics(), globalSetup.isCancelIrrelevant());
+    }
+
+    /**
+     * 从 collector 与只有副作用的 mapper 开始沿 {@link Item#dependsOn()} 向前遍历，得到需要运行的 mapper
+     * <p>只读取注解，不创建节点，被裁剪的 mapper 不会被解析与实例化
+     *
+     * @return 需要运行的 mapper，保持原有的顺序
+     */
+    private static List<Class<?>> reachable(GlobalSetup globalSetup, Collection<Class<?>> mapperClasses, Class<?> collectorClass) {
+        final Set<Class<?>> declared = new HashSet<>(mapperClasses);
+        final Set<Class<?>> reachable = new HashSet<>(mapperClasses.size() * 2);
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.offerLast(collectorClass);
+        for (Class<?> mapperClass : mapperClasses) {
+            final Item item = item(globalSetup, mapperClass);
+            if (ObjUtil.isNotEmpty(item) && item.sideEffect() && reachable.add(mapperClass)) {
+                pending.offerLast(mapperClass);
+            }
+        }
+        while (!pending.isEmpty()) {
+            final Item item = item(globalSetup, pending.pollFirst());
+            if (ObjUtil.isEmpty(item)) {
+                continue;
+            }
+            for (Class<? extends ItemStream> dependsOn : item.dependsOn()) {
+                if (declared.contains(dependsOn) && reachable.add(dependsOn)) {
+                    pending.offerLast(dependsOn);
+                }
+            }
+        }
+        final List<Class<?>> kept = new ArrayList<>(reachable.size());
+        for (Class<?> mapperClass : mapperClasses) {
+            if (reachable.contains(mapperClass)) {
+                kept.add(mapperClass);
+            }
+        }
+        if (log.isDebugEnabled() && kept.size() < declared.size()) {
+            log.debug("[{}]: pruned {} unreachable mappers.", ClassUtil.getClassName(collectorClass, true), declared.size() - kept.size());
+        }
+        return kept;
+    }
+
+    /**
+     * 获取编译时生成的项目流定义
+     *
+     * @return 定义，未开启或者没有生成时为空
+     */
+    private static ItemDefinition definition(GlobalSetup globalSetup, Class<?> type) {
+        return globalSetup.isGeneratedDefinitions() ? ItemDefinitions.get(type) : null;
+    }
+
+    /**
+     * 获取 {@link Item}，优先使用编译时生成的定义
+     */
+    private static Item item(GlobalSetup globalSetup, Class<?> type) {
+        final ItemDefinition definition = definition(globalSetup, type);
+        return ObjUtil.isNotEmpty(definition) ? definition.getItem() : AnnotationUtil.getAnnotation(type, Item.class);
+    }
+
+    /**
+     * 拓扑排序，同时解析被依赖关系
+     */
+    private static List<Node> sort(Map<Class<?>, Node> declared) {
+        final Map<Node, Integer> inDegree = new HashMap<>(declared.size() * 2);
+        final Map<Node, List<Node>> successors = new HashMap<>(declared.size() * 2);
+        for (Node node : declared.values()) {
+            int degree = 0;
+            for (Class<? extends ItemStream> dependsOnClass : node.getDependsOn()) {
+                final Node dependsOn = declared.get(dependsOnClass);
+                if (ObjUtil.isNotEmpty(dependsOn)) {
+                    successors.computeIfAbsent(dependsOn, key -> new ArrayList<>()).add(node);
+                    degree++;
+                }
+            }
+            inDegree.put(node, degree);
+        }
+        final Deque<Node> ready = new ArrayDeque<>();
+        declared.values().stream().filter(node -> inDegree.get(node) == 0).forEach(ready::offerLast);
+        final List<Node> sorted = new ArrayList<>(declared.size());
+        while (!ready.isEmpty()) {
+            final Node node = ready.pollFirst();
+            sorted.add(node);
+            final List<Node> beDependsOn = successors.getOrDefault(node, Collections.emptyList());
+            node.beDependsOn = Collections.unmodifiableList(beDependsOn);
+            node.beDependsOnSlots = new int[beDependsOn.size()];
+            for (int i = 0; i < beDependsOn.size(); i++) {
+                final Node successor = beDependsOn.get(i);
+                node.beDependsOnSlots[i] = successor.getDependsOnSlot(node.getType());
+                if (inDegree.merge(successor, -1, Integer::sum) == 0) {
+                    ready.offerLast(successor);
+                }
+            }
+        }
+        if (sorted.size() != declared.size()) {
+            final List<String> cycle = new ArrayList<>();
+            declared.values().stream().filter(node -> !sorted.contains(node)).forEach(node -> cycle.add(node.getName()));
+            throw new ItemStreamException("Cyclic dependsOn detected: " + cycle);
+        }
+        return sorted;
+    }
+
+    /**
+     * 基于计划创建一次运行的任务，并写入上下文
+     * <p>按照 {@link Item#scope()} 获取项目流实例，并调用每次运行的初始化
+     *
+     * @param context 上下文
+     * @return 按拓扑顺序排列的任务
+     */
+    public ItemStreamTask[] instantiate(Context<?, ?> context) throws ItemStreamException {
+        final ItemStreamTask[] tasks = new ItemStreamTask[nodes.size()];
+        for (Node node : nodes) {
+            tasks[node.index] = new ItemStreamTask(node, node.borrow(), context);
+        }
+        for (Node node : nodes) {
+            final ItemStreamTask[] beDependsOn = new ItemStreamTask[node.beDependsOn.size()];
+            for (int i = 0; i < beDependsOn.length; i++) {
+                beDependsOn[i] = tasks[node.beDependsOn.get(i).index];
+            }
+            tasks[node.index].register(beDependsOn);
+        }
+        context.setPlan(this);
+        context.setTasks(tasks);
+        for (ItemStreamTask task : tasks) {
+            task.getItemStream().doSetup(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 基于计划创建一次运行的任务并开始运行，不等待运行结束
+     * <p>有依赖的任务先进入 WAITING，再让没有依赖的任务进入 RUNNABLE
+     *
+     * @param context 上下文
+     * @return 按拓扑顺序排列的任务
+     */
+    ItemStreamTask[] start(Context<?, ?> context) throws ItemStreamException {
+        final ItemStreamTask[] tasks = instantiate(context);
+        if (tx && ObjUtil.isEmpty(collector)) {
+            // 没有 collector 时不等待 collector 到达终态，运行结束且没有回滚的任务直接提交
+            context.endTx();
+        }
+        if (priority) {
+            refreshRanks();
+        }
+        context.setStartNanos(System.nanoTime());
+        for (ItemStreamTask task : tasks) {
+            if (!task.isSingle()) {
+                task.setState(State.WAITING);
+            }
+        }
+        for (ItemStreamTask task : tasks) {
+            if (task.isSingle()) {
+                task.setState(State.RUNNABLE);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 距上次计算超过 {@link #RANK_REFRESH_NANOS} 时基于最新的耗时重新计算向上排名，同一时间只有一个运行重新计算
+     */
+    private void refreshRanks() {
+        final long last = rankRefreshNanos;
+        final long now = System.nanoTime();
+        if (now - last >= RANK_REFRESH_NANOS && RANK_REFRESH.compareAndSet(this, last, now)) {
+            upwardRanks = rank();
+        }
+    }
+
+    /**
+     * 按历史平均耗时计算每个节点的向上排名，即 HEFT 中的 upward rank：节点自身的耗时加上被依赖节点中最大的向上排名
+     * <p>按拓扑逆序计算，未运行过的节点耗时未知，按已知节点的平均耗时估算
+     *
+     * @return 按节点索引排列的向上排名
+     */
+    private long[] rank() {
+        long known = 0;
+        int count = 0;
+        for (Node node : nodes) {
+            final long average = node.getAverageNanos();
+            if (average >= 0) {
+                known += average;
+                count++;
+            }
+        }
+        final long unknown = count == 0 ? 1 : Math.max(1, known / count);
+        final long[] ranks = new long[nodes.size()];
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            final Node node = nodes.get(i);
+            long successor = 0;
+            for (Node beDependsOn : node.beDependsOn) {
+                successor = Math.max(successor, ranks[beDependsOn.index]);
+            }
+            final long average = node.getAverageNanos();
+            ranks[node.index] = (average >= 0 ? average : unknown) + successor;
+        }
+        return ranks;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public Node getNode(Class<?> type) {
+        return nodeIndex.get(type);
+    }
+
+    public boolean isTx() {
+        return tx;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 获取节点的向上排名，按优先级调度时排名越大越先运行
+     *
+     * @param node 节点
+     * @return 到 collector 的剩余路径的估计耗时，未按优先级调度时为 0
+     * @see GlobalSetup#setPriorityScheduling(boolean)
+     */
+    public long getUpwardRankNanos(Node node) {
+        final long[] ranks = upwardRanks;
+        return ranks == null ? 0 : ranks[node.index];
+    }
+
+    public boolean isCancelIrrelevant() {
+        return cancelIrrelevant;
+    }
+
+    /**
+     * 获取跨运行累计的指标
+     *
+     * @return 指标，{@link GlobalSetup#isMetrics()} 为 false 时为空
+     */
+    public ItemStreamMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Node getCollector() {
+        return collector;
+    }
+
+    /**
+     * 获取合并相同键的并发运行的记录
+     *
+     * @return 合并运行
+     * @see ItemStreamClient#coalesce(Object)
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 计划中的节点
+     */
+    public static final class Node {
+
+        /**
+         * 重新计算对冲百分位的间隔
+         */
+        private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        /**
+         * 按百分位对冲需要的最少样本数
+         */
+        private static final int PERCENTILE_MIN_SAMPLES = 100;
+
+        /**
+         * 拓扑序号
+         */
+        private int index;
+
+        /**
+         * 项目流类型
+         */
+        private final Class<? extends ItemStream> type;
+
+        /**
+         * 项目流的名称
+         */
+        private final String name;
+
+        /**
+         * 每个状态在 stopWatch 中的任务名称，下标为状态的序号，所有运行共用
+         */
+        private final String[] stopWatchNames;
+
+        /**
+         * 是否为 collector
+         */
+        private final boolean collector;
+
+        /**
+         * 构造器，使用生成的定义时为空
+         */
+        private final Constructor<? extends ItemStream> constructor;
+
+        /**
+         * 编译时生成的定义，没有时使用反射
+         */
+        private final ItemDefinition definition;
+
+        /**
+         * 依赖的项目流
+         */
+        private final List<Class<? extends ItemStream>> dependsOn;
+
+        /**
+         * 依赖的项目流的序号
+         */
+        private final Map<Class<?>, Integer> dependsOnSlots;
+
+        /**
+         * 被哪些节点所依赖
+         */
+        private List<Node> beDependsOn = Collections.emptyList();
+
+        /**
+         * 当前节点在被依赖节点的 {@link #dependsOn} 中的序号，与 {@link #beDependsOn} 一一对应
+         */
+        private int[] beDependsOnSlots = new int[0];
+
+        /**
+         * 运行模式
+         */
+        private final RunnableMode runnableMode;
+
+        /**
+         * 运行模式必须依赖的项目流
+         */
+        private final List<Class<? extends ItemStream>> runnableMust;
+
+        /**
+         * 打断模式
+         */
+        private final InterruptedMode interruptedMode;
+
+        /**
+         * 打断模式必须依赖的项目流
+         */
+        private final List<Class<? extends ItemStream>> interruptedMust;
+
+        /**
+         * 运行模式必须依赖的项目流的位图，按依赖的序号置位
+         */
+        private final long[] runnableMustMask;
+
+        /**
+         * 打断模式必须依赖的项目流的位图，按依赖的序号置位
+         */
+        private final long[] interruptedMustMask;
+
+        /**
+         * 是否打印耗时
+         */
+        private final boolean prettyPrint;
+
+        /**
+         * 是否开启事务
+         */
+        private final boolean tx;
+
+        /**
+         * 是否只有副作用
+         */
+        private final boolean sideEffect;
+
+        /**
+         * 超时时间，单位毫秒，为 0 不超时
+         */
+        private final long timeoutMillis;
+
+        /**
+         * 最多重试的次数
+         */
+        private final int retries;
+
+        /**
+         * 第一次重试前等待的时间
+         */
+        private final long backoffNanos;
+
+        /**
+         * 每次重试等待的时间相对上一次的倍数
+         */
+        private final double backoffMultiplier;
+
+        /**
+         * 需要重试的异常，为空时重试所有异常
+         */
+        private final List<Class<? extends Throwable>> retryOn;
+
+        /**
+         * 对冲的等待时间
+         */
+        private final long hedgeAfterNanos;
+
+        /**
+         * 按历史运行耗时的百分位对冲，为 0 不使用
+         */
+        private final double hedgePercentile;
+
+        /**
+         * 最多对冲的次数
+         */
+        private final int maxHedges;
+
+        /**
+         * 按百分位计算的对冲等待时间，样本不足时为 0
+         */
+        private volatile long percentileHedgeNanos;
+
+        /**
+         * 上次计算百分位的时间
+         */
+        private volatile long percentileRefreshNanos;
+
+        /**
+         * 是否允许在完成依赖的线程上直接运行
+         */
+        private final boolean inline;
+
+        /**
+         * 在完成依赖的线程上直接运行的耗时阈值
+         */
+        private final long inlineThresholdNanos;
+
+        /**
+         * 运行耗时的指数移动平均值，未运行过时为 -1，并发更新时允许丢失部分样本
+         */
+        private volatile long averageNanos = -1;
+
+        /**
+         * 指标，未开启时为空
+         */
+        private final NodeMetrics metrics;
+
+        /**
+         * 结果缓存，未开启时为空
+         */
+        private final ItemStreamCache cache;
+
+        /**
+         * 线程池
+         */
+        private final Executor executor;
+
+        /**
+         * 线程池的名称，见 {@link Item#executor()}
+         */
+        private final String executorName;
+
+        /**
+         * 线程池的指标，未开启指标时为空
+         */
+        private final ExecutorMetrics executorMetrics;
+
+        /**
+         * 隔离舱，未限制并发数时为空，不经过隔离舱
+         */
+        private final Bulkhead bulkhead;
+
+        /**
+         * 实例作用域
+         */
+        private final Scope scope;
+
+        /**
+         * 单例
+         */
+        private final ItemStream singleton;
+
+        /**
+         * 对象池
+         */
+        private final Queue<ItemStream> pool;
+
+        /**
+         * 对象池中空闲实例的数量
+         */
+        private final AtomicInteger idle = new AtomicInteger();
+
+        /**
+         * 对象池的大小
+         */
+        private final int poolSize;
+
+        private Node(Class<? extends ItemStream> type, ItemDefinition definition, boolean collector, GlobalSetup globalSetup) {
+            final Item item = ObjUtil.isNotEmpty(definition) ? definition.getItem() : AnnotationUtil.getAnnotation(type, Item.class);
+            if (ObjUtil.isEmpty(item)) {
+                throw new ItemStreamException("Missing @Item on " + type.getName() + ".");
+            }
+            this.type = type;
+            this.name = ClassUtil.getClassName(type, true);
+            this.stopWatchNames = new String[State.values().length];
+            for (State state : State.values()) {
+                stopWatchNames[state.ordinal()] = name + "-" + state;
+            }
+            this.collector = collector;
+            this.definition = definition;
+            if (ObjUtil.isNotEmpty(definition)) {
+                this.constructor = null;
+            } else {
+                try {
+                    this.constructor = type.getDeclaredConstructor();
+                    this.constructor.setAccessible(true);
+                } catch (NoSuchMethodException | SecurityException e) {
+                    throw new ItemStreamException((collector ? "Collector" : "Mapper") + " creation failed.", e);
+                }
+            }
+            this.dependsOn = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(Arrays.asList(item.dependsOn()))));
+            if (dependsOn.size() > ItemStream.MAX_DEPENDS_ON) {
+                throw new ItemStreamException(name + " depends on more than " + ItemStream.MAX_DEPENDS_ON + " item streams.");
+            }
+            final Map<Class<?>, Integer> slots = new HashMap<>(dependsOn.size() * 2);
+            for (int i = 0; i < dependsOn.size(); i++) {
+                slots.put(dependsOn.get(i), i);
+            }
+            this.dependsOnSlots = Collections.unmodifiableMap(slots);
+            this.runnableMode = item.runnableMode();
+            this.runnableMust = Collections.unmodifiableList(Arrays.asList(item.runnableMust()));
+            this.interruptedMode = item.interruptedMode();
+            this.interruptedMust = Collections.unmodifiableList(Arrays.asList(item.interruptedMust()));
+            this.runnableMustMask = mask(runnableMust);
+            this.interruptedMustMask = mask(interruptedMust);
+            if (ObjUtil.isNotEmpty(item.prettyPrint())) {
+                this.prettyPrint = Boolean.parseBoolean(item.prettyPrint());
+            } else {
+                this.prettyPrint = globalSetup.isPrettyPrint();
+            }
+            if (ObjUtil.isNotEmpty(item.tx())) {
+                this.tx = Boolean.parseBoolean(item.tx());
+            } else {
+                this.tx = globalSetup.isTx();
+            }
+            this.sideEffect = item.sideEffect();
+            if (item.timeoutMillis() < 0) {
+                throw new ItemStreamException(name + " timeoutMillis must not be negative.");
+            }
+            this.timeoutMillis = item.timeoutMillis();
+            if (item.retries() < 0 || item.backoffMillis() < 0 || item.backoffMultiplier() < 1) {
+                throw new ItemStreamException(name + " retries and backoffMillis must not be negative, backoffMultiplier must not be less than 1.");
+            }
+            this.retries = item.retries();
+            this.backoffNanos = TimeUnit.MILLISECONDS.toNanos(item.backoffMillis());
+            this.backoffMultiplier = item.backoffMultiplier();
+            this.retryOn = Collections.unmodifiableList(Arrays.asList(item.retryOn()));
+            if (item.hedgeAfterMillis() < 0 || item.hedgePercentile() < 0 || item.hedgePercentile() >= 100 || item.maxHedges() < 0) {
+                throw new ItemStreamException(name + " hedgeAfterMillis and maxHedges must not be negative, hedgePercentile must be in [0, 100).");
+            }
+            if (item.hedgePercentile() > 0 && !globalSetup.isMetrics()) {
+                throw new ItemStreamException(name + " hedgePercentile requires metrics.");
+            }
+            this.hedgeAfterNanos = TimeUnit.MILLISECONDS.toNanos(item.hedgeAfterMillis());
+            this.hedgePercentile = item.hedgePercentile();
+            this.maxHedges = item.maxHedges();
+            this.percentileRefreshNanos = System.nanoTime() - PERCENTILE_REFRESH_NANOS;
+            if (item.maxConcurrency() < 0) {
+                throw new ItemStreamException(name + " maxConcurrency must not be negative.");
+            }
+            if (ObjUtil.isNotEmpty(item.inline())) {
+                this.inline = Boolean.parseBoolean(item.inline());
+            } else {
+                this.inline = globalSetup.isInline();
+            }
+            this.inlineThresholdNanos = TimeUnit.MICROSECONDS.toNanos(globalSetup.getInlineThresholdMicros());
+            this.metrics = globalSetup.isMetrics() ? new NodeMetrics(name) : null;
+            this.cache = cache(item);
+            this.executorName = ObjUtil.isNotEmpty(item.executor()) ? item.executor() : GlobalSetup.DEFAULT_EXECUTOR;
+            final Executor named = globalSetup.getExecutor(executorName);
+            if (ObjUtil.isEmpty(named) && !GlobalSetup.DEFAULT_EXECUTOR.equals(executorName) && !globalSetup.isVirtualThreads()) {
+                throw new ItemStreamException(name + " executor " + executorName + " is not registered.");
+            }
+            if (globalSetup.isVirtualThreads()) {
+                this.executor = VirtualThreads.executor();
+            } else if (globalSetup.isPriorityScheduling()) {
+                this.executor = globalSetup.getPriorityExecutor(named);
+            } else {
+                this.executor = named;
+            }
+            this.executorMetrics = globalSetup.isMetrics() ? globalSetup.executorMetrics(executorName) : null;
+            this.bulkhead = item.maxConcurrency() > 0 ? globalSetup.bulkhead(type, name, item.maxConcurrency()) : null;
+            this.scope = item.scope();
+            this.poolSize = item.poolSize() > 0 ? item.poolSize() : globalSetup.getPoolSize();
+            this.pool = Scope.POOLED.equals(scope) ? new ConcurrentLinkedQueue<>() : null;
+            this.singleton = Scope.SINGLETON.equals(scope) ? create() : null;
+        }
+
+        private ItemStreamCache cache(Item item) {
+            if (item.cacheSize() < 0 || item.cacheTtlMillis() < 0 || item.cacheStaleMillis() < 0) {
+                throw new ItemStreamException(name + " cacheSize, cacheTtlMillis and cacheStaleMillis must not be negative.");
+            }
+            if (item.cacheSize() == 0) {
+                return null;
+            }
+            if (!CacheableItemStreamMapper.class.isAssignableFrom(type)) {
+                throw new ItemStreamException(name + " must extend " + CacheableItemStreamMapper.class.getSimpleName() + " to use cacheSize.");
+            }
+            if (item.cacheStaleMillis() > 0 && item.cacheTtlMillis() == 0) {
+                throw new ItemStreamException(name + " cacheStaleMillis requires cacheTtlMillis.");
+            }
+            return new ItemStreamCache(name, item.cacheSize(), item.cacheTtlMillis(), item.cacheStaleMillis());
+        }
+
+        private long[] mask(List<Class<? extends ItemStream>> must) {
+            final long[] mask = new long[(dependsOn.size() + 63) >>> 6];
+            for (Class<? extends ItemStream> itemStream : must) {
+                final int slot = getDependsOnSlot(itemStream);
+                if (slot >= 0) {
+                    mask[slot >>> 6] |= 1L << slot;
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * 创建并初始化实例
+         */
+        private ItemStream create() throws ItemStreamException {
+            final ItemStream itemStream;
+            try {
+                itemStream = ObjUtil.isNotEmpty(definition) ? definition.newInstance() : constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new ItemStreamException((collector ? "Collector" : "Mapper") + " creation failed.", e);
+            }
+            itemStream.init();
+            return itemStream;
+        }
+
+        /**
+         * 按作用域获取实例，用完后通过 {@link #release(ItemStream)} 归还
+         */
+        ItemStream borrow() throws ItemStreamException {
+            switch (scope) {
+                case SINGLETON:
+                    return singleton;
+                case POOLED:
+                    final ItemStream itemStream = pool.poll();
+                    if (ObjUtil.isNotEmpty(itemStream)) {
+                        idle.decrementAndGet();
+                        return itemStream;
+                    }
+                    return create();
+                default:
+                    return create();
+            }
+        }
+
+        /**
+         * 归还实例，对象池已满时丢弃
+         */
+        void release(ItemStream itemStream) {
+            if (Scope.POOLED.equals(scope) && idle.incrementAndGet() <= poolSize) {
+                pool.offer(itemStream);
+            } else if (Scope.POOLED.equals(scope)) {
+                idle.decrementAndGet();
+            }
+        }
+
+        /**
+         * 记录一次运行耗时
+         *
+         * @param nanos 耗时
+         */
+        void recordDuration(long nanos) {
+            final long average = averageNanos;
+            averageNanos = average < 0 ? nanos : average + ((nanos - average) >> 3);
+        }
+
+        /**
+         * 是否重试异常，异常本身或者异常的原因是需要重试的异常时重试
+         *
+         * @param ex 异常
+         * @return 是否重试
+         */
+        boolean isRetryOn(Throwable ex) {
+            if (retryOn.isEmpty()) {
+                return true;
+            }
+            for (Throwable cause = ex; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+                for (Class<? extends Throwable> type : retryOn) {
+                    if (type.isInstance(cause)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 获取第 retry 次重试前等待的时间
+         *
+         * @param retry 第几次重试，从 1 开始
+         * @return 等待的时间
+         */
+        long getBackoffNanos(int retry) {
+            final double backoff = backoffNanos * Math.pow(backoffMultiplier, retry - 1);
+            return backoff >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) backoff;
+        }
+
+        /**
+         * 是否对冲
+         *
+         * @return 是否对冲
+         */
+        boolean isHedged() {
+            return maxHedges > 0 && (hedgeAfterNanos > 0 || hedgePercentile > 0);
+        }
+
+        /**
+         * 获取对冲的等待时间，按百分位对冲时每秒最多重新计算一次百分位
+         *
+         * @return 等待时间，为 0 时本次不对冲
+         */
+        long getHedgeDelayNanos() {
+            if (hedgePercentile > 0) {
+                final long now = System.nanoTime();
+                if (now - percentileRefreshNanos >= PERCENTILE_REFRESH_NANOS) {
+                    percentileRefreshNanos = now;
+                    final LatencyHistogram.Snapshot snapshot = metrics.getExecution().snapshot();
+                    percentileHedgeNanos = snapshot.getCount() >= PERCENTILE_MIN_SAMPLES ? snapshot.getPercentile(hedgePercentile) : 0;
+                }
+                if (percentileHedgeNanos > 0) {
+                    return percentileHedgeNanos;
+                }
+            }
+            return hedgeAfterNanos;
+        }
+
+        /**
+         * 是否可以在完成依赖的线程上直接运行，未运行过的项目流耗时未知，总是提交到线程池
+         *
+         * @return 是否可以直接运行
+         */
+        boolean isInlineable() {
+            final long average = averageNanos;
+            return inline && average >= 0 && average <= inlineThresholdNanos;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Class<? extends ItemStream> getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 获取状态在 stopWatch 中的任务名称
+         *
+         * @param state 状态
+         * @return 任务名称
+         */
+        public String getStopWatchName(State state) {
+            return stopWatchNames[state.ordinal()];
+        }
+
+        public boolean isCollector() {
+            return collector;
+        }
+
+        public List<Class<? extends ItemStream>> getDependsOn() {
+            return dependsOn;
+        }
+
+        /**
+         * 获取依赖的项目流的序号
+         *
+         * @param itemStream 项目流
+         * @return 序号，不依赖时为 -1
+         */
+        public int getDependsOnSlot(Class<?> itemStream) {
+            final Integer slot = dependsOnSlots.get(itemStream);
+            return slot == null ? -1 : slot;
+        }
+
+        /**
+         * 依赖的序号是否为运行模式必须依赖的项目流
+         *
+         * @param slot 序号
+         * @return 是否必须依赖
+         */
+        public boolean isRunnableMust(int slot) {
+            return (runnableMustMask[slot >>> 6] & (1L << slot)) != 0;
+        }
+
+        /**
+         * 依赖的序号是否为打断模式必须依赖的项目流
+         *
+         * @param slot 序号
+         * @return 是否必须依赖
+         */
+        public boolean isInterruptedMust(int slot) {
+            return (interruptedMustMask[slot >>> 6] & (1L << slot)) != 0;
+        }
+
+        public List<Node> getBeDependsOn() {
+            return beDependsOn;
+        }
+
+        int[] getBeDependsOnSlots() {
+            return beDependsOnSlots;
+        }
+
+        public RunnableMode getRunnableMode() {
+            return runnableMode;
+        }
+
+        public List<Class<? extends ItemStream>> getRunnableMust() {
+            return runnableMust;
+        }
+
+        public InterruptedMode getInterruptedMode() {
+            return interruptedMode;
+        }
+
+        public List<Class<? extends ItemStream>> getInterruptedMust() {
+            return interruptedMust;
+        }
+
+        public boolean isPrettyPrint() {
+            return prettyPrint;
+        }
+
+        public boolean isTx() {
+            return tx;
+        }
+
+        public boolean isSideEffect() {
+            return sideEffect;
+        }
+
+        /**
+         * 是否使用编译时生成的定义
+         *
+         * @return 是否使用
+         */
+        public boolean isGenerated() {
+            return definition != null;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public boolean isInline() {
+            return inline;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public List<Class<? extends Throwable>> getRetryOn() {
+            return retryOn;
+        }
+
+        public int getMaxHedges() {
+            return maxHedges;
+        }
+
+        /**
+         * 获取运行耗时的指数移动平均值
+         *
+         * @return 耗时，未运行过时为 -1
+         */
+        public long getAverageNanos() {
+            return averageNanos;
+        }
+
+        /**
+         * 获取跨运行累计的指标
+         *
+         * @return 指标，{@link GlobalSetup#isMetrics()} 为 false 时为空
+         */
+        public NodeMetrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * 获取结果缓存
+         *
+         * @return 缓存，{@link Item#cacheSize()} 为 0 时为空
+         */
+        public ItemStreamCache getCache() {
+            return cache;
+        }
+
+        public Executor getExecutor() {
+            return executor;
+        }
+
+        public String getExecutorName() {
+            return executorName;
+        }
+
+        public ExecutorMetrics getExecutorMetrics() {
+            return executorMetrics;
+        }
+
+        public Bulkhead getBulkhead() {
+            return bulkhead;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 一次运行
+ * <p>持有本次运行的 {@link Context}，不依赖线程变量，可以在任意线程上设置与开始，也可以在同一个线程上同时驱动多次运行。
+ * 每个实例只能开始一次，开启事务的项目流实例在各自提交或回滚结束后自动归还
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 23:10
+ * @version 1.0.0
+ * @see ItemStreamClient#newRun()
+ */
+public final class ItemStreamRun<I, O> {
+
+    /**
+     * 项目流客户端
+     */
+    private final ItemStreamClient<I, O> client;
+
+    /**
+     * 上下文
+     */
+    private final Context<I, O> context = new Context<>();
+
+    /**
+     * 是否已开始
+     */
+    private boolean started;
+
+    ItemStreamRun(ItemStreamClient<I, O> client) {
+        this.client = client;
+    }
+
+    /**
+     * 设置输入
+     *
+     * @param input 输入
+     * @return this
+     */
+    public ItemStreamRun<I, O> input(I input) {
+        context.setInput(input);
+        return this;
+    }
+
+    /**
+     * 设置输入
+     *
+     * @param inputSupplier 输入提供者
+     * @return this
+     */
+    public ItemStreamRun<I, O> input(Supplier<I> inputSupplier) {
+        context.setInput(inputSupplier.get());
+        return this;
+    }
+
+    /**
+     * 设置输出
+     *
+     * @param output 输出
+     * @return this
+     */
+    public ItemStreamRun<I, O> output(O output) {
+        context.setOutput(output);
+        return this;
+    }
+
+    /**
+     * 设置输出
+     *
+     * @param outputSupplier 输出提供者
+     * @return this
+     */
+    public ItemStreamRun<I, O> output(Supplier<O> outputSupplier) {
+        context.setOutput(outputSupplier.get());
+        return this;
+    }
+
+    /**
+     * 设置 mapperClass
+     *
+     * @param mapperClasses mapperClasses
+     * @return this
+     */
+    public ItemStreamRun<I, O> mapperClass(List<Class<?>> mapperClasses) throws ItemStreamException {
+        final List<Class<?>> existing = context.getMapperClasses();
+        if (ObjUtil.isEmpty(existing)) {
+            context.setMapperClasses(mapperClasses);
+        } else {
+            final List<Class<?>> merged = new ArrayList<>(existing);
+            merged.addAll(mapperClasses);
+            context.setMapperClasses(merged);
+        }
+        return this;
+    }
+
+    /**
+     * 设置 mapperClass
+     *
+     * @param packageName mapperClass 所在的包名
+     * @return this
+     */
+    public ItemStreamRun<I, O> mapperClass(String packageName) throws ItemStreamException {
+        return mapperClass(client.scan(packageName));
+    }
+
+    /**
+     * 设置 collectorClass
+     *
+     * @param collectorClass collectorClass
+     * @return this
+     */
+    public ItemStreamRun<I, O> collectorClass(Class<? extends ItemStreamCollector<I, O>> collectorClass) throws ItemStreamException {
+        context.setCollectorClass(collectorClass);
+        return this;
+    }
+
+    /**
+     * 设置执行计划，优先级高于 {@link #mapperClass(List)} 与 {@link #collectorClass(Class)}
+     *
+     * @param plan 执行计划
+     * @return this
+     */
+    public ItemStreamRun<I, O> plan(ItemStreamPlan plan) {
+        context.setPlan(plan);
+        return this;
+    }
+
+    /**
+     * 合并相同键的并发运行，见 {@link ItemStreamClient#coalesce(Object)}
+     *
+     * @param key 合并运行的键，通常由输入中决定输出的部分组成
+     * @return this
+     */
+    public ItemStreamRun<I, O> coalesce(Object key) {
+        context.setCoalesceKey(key);
+        return this;
+    }
+
+    /**
+     * 合并相同键的并发运行，见 {@link ItemStreamClient#coalesce(Object, BiConsumer)}
+     *
+     * @param key    合并运行的键，通常由输入中决定输出的部分组成
+     * @param copier 复制方式，第一个参数为正在进行的运行的输出，第二个参数为本次运行的输出
+     * @return this
+     */
+    public ItemStreamRun<I, O> coalesce(Object key, BiConsumer<? super O, ? super O> copier) {
+        context.setCoalesceKey(key);
+        context.setCoalesceCopier(copier);
+        return this;
+    }
+
+    /**
+     * 开始运行，不阻塞当前线程
+     * <p>collector 终止时以输出完成，被打断时以打断的原因异常完成；没有 collector 时立即以输出完成。
+     * 取消返回的 future 会取消本次运行，见 {@link Context#cancel()}；设置了 {@link #coalesce(Object)} 时可能合并到正在进行的运行
+     *
+     * @return 输出
+     */
+    public CompletableFuture<O> start() throws ItemStreamException {
+        if (started) {
+            throw new ItemStreamException("Run already started.");
+        }
+        started = true;
+        final ItemStreamPlan plan = client.resolvePlan(context);
+        if (ObjUtil.isNotEmpty(context.getCoalesceKey()) && !context.isBatch()) {
+            return plan.getSingleFlight().run(context, () -> start(plan));
+        }
+        return start(plan);
+    }
+
+    private CompletableFuture<O> start(ItemStreamPlan plan) {
+        final CompletableFuture<O> future = context.getFuture();
+        if (ObjUtil.isEmpty(plan.getCollector())) {
+            future.complete(context.getOutput());
+        } else {
+            future.whenComplete((output, ex) -> {
+                if (future.isCancelled()) {
+                    context.cancel();
+                }
+            });
+        }
+        plan.start(context);
+        return future;
+    }
+
+    /**
+     * 开始运行，不阻塞当前线程
+     * <p>超过期限时以 {@link ItemStreamTimeoutException} 取消本次运行，见 {@link Context#cancel(Exception)}。
+     * 期限由共享的定时器计时，不会为每次运行创建线程；到期后完成 future 与打断项目流在执行计划的线程池中进行
+     *
+     * @param timeout 期限
+     * @return 输出
+     */
+    public CompletableFuture<O> start(Duration timeout) throws ItemStreamException {
+        final long timeoutMillis = timeout.toMillis();
+        final ScheduledFuture<?> deadline = Timeouts.schedule(() -> context.cancel(
+                new ItemStreamTimeoutException("Run timed out after " + timeoutMillis + " ms."), getExecutor()), timeoutMillis);
+        final CompletableFuture<O> future;
+        try {
+            future = start();
+        } catch (RuntimeException e) {
+            deadline.cancel(false);
+            throw e;
+        }
+        future.whenComplete((output, ex) -> deadline.cancel(false));
+        return future;
+    }
+
+    /**
+     * 运行，阻塞直到 collector 到达终态
+     * <p>collector 被打断时同样返回输出，打断的原因由 {@link ItemStreamCollector#ex(Exception, Context)} 处理；
+     * 等待期间当前线程被打断时取消本次运行，见 {@link Context#cancel()}
+     *
+     * @return 输出
+     */
+    public O run() throws InterruptedException {
+        try {
+            return start().get();
+        } catch (ExecutionException e) {
+            return context.getOutput();
+        } catch (InterruptedException e) {
+            context.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 运行，阻塞直到 collector 到达终态或超过期限
+     * <p>超过期限时取消本次运行，见 {@link #start(Duration)}
+     *
+     * @param timeout 期限
+     * @return 输出
+     * @throws ItemStreamTimeoutException 超过期限
+     */
+    public O run(Duration timeout) throws InterruptedException, ItemStreamTimeoutException {
+        try {
+            return start(timeout).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ItemStreamTimeoutException && e.getCause() == context.getCancelCause()) {
+                throw (ItemStreamTimeoutException) e.getCause();
+            }
+            return context.getOutput();
+        } catch (InterruptedException e) {
+            context.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 批量运行，阻塞直到 collector 到达终态，见 {@link ItemStreamClient#runBatch(List, Supplier)}
+     *
+     * @param inputs         输入，每个元素一个通道
+     * @param outputSupplier 输出提供者，每个通道调用一次
+     * @return 输出，与 inputs 一一对应
+     */
+    public List<O> runBatch(List<I> inputs, Supplier<O> outputSupplier) throws InterruptedException {
+        try {
+            return startBatch(inputs, outputSupplier).get();
+        } catch (ExecutionException e) {
+            return context.getOutputs();
+        } catch (InterruptedException e) {
+            context.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 开始批量运行，不阻塞当前线程，见 {@link #runBatch(List, Supplier)}
+     *
+     * @param inputs         输入，每个元素一个通道
+     * @param outputSupplier 输出提供者，每个通道调用一次
+     * @return 输出，与 inputs 一一对应
+     */
+    public CompletableFuture<List<O>> startBatch(List<I> inputs, Supplier<O> outputSupplier) throws ItemStreamException {
+        final List<O> outputs = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            outputs.add(outputSupplier.get());
+        }
+        context.setInputs(inputs);
+        context.setOutputs(outputs);
+        if (inputs.isEmpty()) {
+            started = true;
+            return CompletableFuture.completedFuture(outputs);
+        }
+        final CompletableFuture<List<O>> future = start().thenApply(output -> outputs);
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                context.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 创建流水线，使用本次运行设置的执行计划、mapperClass 与 collectorClass
+     *
+     * @param outputSupplier 输出提供者，每个输入调用一次
+     * @return 流水线
+     */
+    public ItemStreamPipeline<I, O> pipeline(Supplier<O> outputSupplier) throws ItemStreamException {
+        return new ItemStreamPipeline<>(client.resolvePlan(context), outputSupplier);
+    }
+
+    /**
+     * 取消本次运行，见 {@link Context#cancel()}
+     */
+    public void cancel() {
+        context.cancel();
+    }
+
+    private Executor getExecutor() {
+        final ItemStreamPlan plan = context.getPlan();
+        return ObjUtil.isEmpty(plan) ? null : plan.getExecutor();
+    }
+
+    public Context<I, O> getContext() {
+        return context;
+    }
+}
@@ -0,0 +1,1556 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.date.StopWatch;
+import cn.hutool.core.util.ObjUtil;
+import com.google.common.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static io.github.lostblackknight.item.stream.State.*;
+
+/**
+ * 项目流任务
+ * <p>项目流在一次运行中的状态，与 {@link ItemStream} 实例分离，
+ * 使得 {@link Scope#SINGLETON} 与 {@link Scope#POOLED} 的实例可以在多次运行间安全地共享
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 13:05
+ * @version 1.0.0
+ * @see ItemStream
+ * @see ItemStreamPlan
+ */
+public final class ItemStreamTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemStreamTask.class);
+
+    /**
+     * 依赖计数器中各个计数所在的位，每个计数占 15 位
+     * <p>TERMINATED_SHIFT: 按运行模式计入的终止数
+     * <p>INTERRUPTED_SHIFT: 打断数
+     * <p>INTERRUPTED_MUST_SHIFT: 打断模式必须依赖的项目流中的打断数
+     * <p>TERMINATED_MUST_SHIFT: 打断模式必须依赖的项目流中的终止数
+     */
+    private static final int TERMINATED_SHIFT = 0;
+
+    private static final int INTERRUPTED_SHIFT = 15;
+
+    private static final int INTERRUPTED_MUST_SHIFT = 30;
+
+    private static final int TERMINATED_MUST_SHIFT = 45;
+
+    private static final long COUNT_MASK = ItemStream.MAX_DEPENDS_ON;
+
+    /**
+     * 依赖计数器中的已决定标记，置位后忽略后续的依赖事件
+     */
+    private static final long DECIDED = 1L << 62;
+
+    /**
+     * 状态跟踪中每个状态占的位数，一个 long 最多记录 {@link #STATE_TRACE_CAPACITY} 个状态，超出的部分记录在 {@link #stateTraceOverflow}
+     */
+    private static final int STATE_TRACE_BITS = 4;
+
+    private static final int STATE_TRACE_CAPACITY = Long.SIZE / STATE_TRACE_BITS;
+
+    private static final State[] STATES = State.values();
+
+    private static final State[] NO_STATES = new State[0];
+
+    private static final ItemStreamTask[] NO_TASKS = new ItemStreamTask[0];
+
+    /**
+     * 计数与标记不单独分配原子对象，通过字段更新器直接操作本任务的 volatile 字段
+     */
+    private static final AtomicLongFieldUpdater<ItemStreamTask> DEPENDS_ON_COUNTER =
+            AtomicLongFieldUpdater.newUpdater(ItemStreamTask.class, "dependsOnCounter");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> UNDECIDED_BE_DEPENDS_ON =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "undecidedBeDependsOn");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> RELEASED =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "released");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> FINISHED =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "finished");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> TX_DECIDED =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "txDecided");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> TX_ENDED =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "txEnded");
+
+    private static final AtomicIntegerFieldUpdater<ItemStreamTask> ABORT_ENDED =
+            AtomicIntegerFieldUpdater.newUpdater(ItemStreamTask.class, "abortEnded");
+
+    /**
+     * 由 {@link #abort(Exception)} 或超时到达终态的标记，见 {@link #finished}
+     */
+    private static final int ABORTED = 2;
+
+    /**
+     * 被打断时运行方已结束的标记，见 {@link #abortEnded}
+     */
+    private static final int RUNNER_EXITED = 1;
+
+    /**
+     * 被打断时发布 INTERRUPTED 已结束的标记，见 {@link #abortEnded}
+     */
+    private static final int ABORT_PUBLISHED = 2;
+
+    /**
+     * 被打断时运行方需要清理的标记，见 {@link #abortEnded}
+     */
+    private static final int ABORT_CLEANUP = 4;
+
+    /**
+     * 开启事务时运行已结束的标记，见 {@link #txEnded}
+     */
+    private static final int TX_RUN_ENDED = 1;
+
+    /**
+     * 开启事务时提交或回滚已结束的标记，见 {@link #txEnded}
+     */
+    private static final int TX_SETTLED = 2;
+
+    /**
+     * 计划中的节点
+     */
+    private final ItemStreamPlan.Node node;
+
+    /**
+     * 项目流实例
+     */
+    private final ItemStream itemStream;
+
+    /**
+     * 上下文
+     */
+    private final Context<?, ?> context;
+
+    /**
+     * 项目流的状态
+     */
+    private volatile State state;
+
+    /**
+     * 依赖的其他项目流的状态，下标为依赖在 {@link ItemStreamPlan.Node#getDependsOn()} 中的序号
+     */
+    private final State[] dependsOnState;
+
+    /**
+     * 依赖计数器，所有计数打包在一个 long 中，通过一次 CAS 完成计数与状态决定
+     */
+    private volatile long dependsOnCounter;
+
+    /**
+     * 被依赖的任务，与 {@link ItemStreamPlan.Node#getBeDependsOn()} 一一对应
+     */
+    private ItemStreamTask[] beDependsOn = NO_TASKS;
+
+    /**
+     * 依赖的任务，下标为依赖的序号，依赖的项目流不在执行计划中时为空
+     */
+    private final ItemStreamTask[] dependsOn;
+
+    /**
+     * 尚未决定状态的被依赖任务的数量，collector 额外计 1，减为 0 时本任务不再影响 collector
+     */
+    private volatile int undecidedBeDependsOn;
+
+    /**
+     * 打断的原因，第一次打断时创建
+     */
+    private Deque<Exception> interruptCause;
+
+    /**
+     * 状态跟踪，按顺序记录每个状态的序号，每个状态占 {@link #STATE_TRACE_BITS} 位
+     */
+    private long stateTrace;
+
+    /**
+     * 状态跟踪中的状态数量
+     */
+    private int stateTraceSize;
+
+    /**
+     * 超出 {@link #STATE_TRACE_CAPACITY} 的状态跟踪，第一次超出时创建
+     */
+    private List<State> stateTraceOverflow;
+
+    /**
+     * stopWatch，只有开启 prettyPrint 时记录各个状态的耗时，第一次使用时创建
+     */
+    private StopWatch stopWatch;
+
+    /**
+     * 项目流实例是否已归还，1 为已归还
+     */
+    private volatile int released;
+
+    /**
+     * 开启事务时是否已决定提交或回滚，1 为已决定，提交与回滚只会发生一次
+     */
+    private volatile int txDecided;
+
+    /**
+     * 开启事务时已结束的阶段，{@link #TX_RUN_ENDED} 与 {@link #TX_SETTLED} 都结束后才归还项目流实例，
+     * 回滚或者 cleanup 仍在使用实例时不会归还
+     */
+    private volatile int txEnded;
+
+    /**
+     * 被打断时已结束的一方，{@link #RUNNER_EXITED} 与 {@link #ABORT_PUBLISHED} 都结束后才清理并结束运行，
+     * 打断方仍在发布 INTERRUPTED 或调用 ex 时不会清理与归还实例
+     */
+    private volatile int abortEnded;
+
+    /**
+     * 批量运行时本任务需要运行的通道，按通道序号升序排列
+     */
+    private int[] lanes;
+
+    /**
+     * 批量运行时各个通道被打断的原因，下标为通道序号，为空时通道未被打断，第一个通道被打断时创建
+     */
+    private Exception[] laneCauses;
+
+    /**
+     * 进入 RUNNABLE 的时间，{@link System#nanoTime()}
+     */
+    private long runnableNanos;
+
+    /**
+     * 开始运行项目流的时间，未运行时为 0
+     */
+    private long startNanos;
+
+    /**
+     * 到达终态的时间，未到达终态时为 0
+     */
+    private long endNanos;
+
+    /**
+     * 决定本任务状态的依赖任务，即最后一个被等待的依赖，没有依赖时为空
+     */
+    private ItemStreamTask trigger;
+
+    /**
+     * 是否已到达终态，1 为已到达，{@link #ABORTED} 为被打断到达，TERMINATED 或 INTERRUPTED 只会发布一次
+     */
+    private volatile int finished;
+
+    /**
+     * 到达的终态，ROLLBACK 不会覆盖
+     */
+    private volatile State terminalState;
+
+    /**
+     * 本任务运行完成后由当前线程接着运行的被依赖任务，只能由 {@link #continuer} 设置与读取
+     */
+    private ItemStreamTask continuation;
+
+    /**
+     * 正在发布终态、可以接着运行被依赖任务的线程，即持有 {@link #runOnce()} 的线程。
+     * 对冲、超时与取消的线程发布终态时不接受，被依赖的任务提交到线程池
+     */
+    private volatile Thread continuer;
+
+    /**
+     * 正在运行项目流的线程，只在 {@link ItemStream#doRunnableInterval(ItemStreamTask)} 期间有值，通过 this 加锁访问
+     */
+    private Thread runner;
+
+    /**
+     * 正在运行的对冲的线程，第一次对冲时创建，通过 this 加锁访问
+     */
+    private List<Thread> hedgeRunners;
+
+    /**
+     * 尚未结束的运行的数量，包括对冲，只在对冲时使用，通过 this 加锁访问
+     */
+    private int attempts;
+
+    /**
+     * 已经发起的对冲的次数，通过 this 加锁访问
+     */
+    private int hedges;
+
+    /**
+     * 已经重试的次数
+     */
+    private int retries;
+
+    /**
+     * 是否已提交到线程池尚未开始运行，计入 {@link ExecutorMetrics#getQueuedCount()}
+     */
+    private boolean dispatched;
+
+    /**
+     * 提交到线程池或者被接着运行前是否已占用隔离舱的并发数，由开始的运行负责归还
+     */
+    private boolean permit;
+
+    ItemStreamTask(ItemStreamPlan.Node node, ItemStream itemStream, Context<?, ?> context) {
+        this.node = node;
+        this.itemStream = itemStream;
+        this.context = context;
+        final int size = node.getDependsOn().size();
+        this.dependsOnState = size == 0 ? NO_STATES : new State[size];
+        this.dependsOn = size == 0 ? NO_TASKS : new ItemStreamTask[size];
+        Arrays.fill(dependsOnState, NEW);
+        this.state = NEW;
+        trace(NEW);
+    }
+
+    /**
+     * 注册被哪些任务依赖
+     *
+     * @param tasks 任务，与 {@link ItemStreamPlan.Node#getBeDependsOn()} 一一对应
+     */
+    void register(ItemStreamTask[] tasks) {
+        beDependsOn = tasks;
+        final int[] slots = node.getBeDependsOnSlots();
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].dependsOn[slots[i]] = this;
+        }
+        undecidedBeDependsOn = node.isCollector() ? tasks.length + 1 : tasks.length;
+    }
+
+    /**
+     * 设置任务的状态
+     *
+     * @param state 状态
+     */
+    public void setState(State state) {
+        transition(state);
+        switch (state) {
+            case RUNNABLE:
+                if (context.isCancelled()) {
+                    abortUnscheduled(context.getCancelCause());
+                } else if (!runCached()) {
+                    dispatch();
+                }
+                break;
+            case WAITING:
+                itemStream.doWaiting(this);
+                break;
+            case TERMINATED:
+                doTerminated();
+                break;
+            case INTERRUPTED:
+                doInterrupt();
+                break;
+            case ROLLBACK:
+                if (node.isTx()) {
+                    recordState(ROLLBACK);
+                    CompletableFuture.runAsync(this::doRollback, getExecutor());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 只记录状态，不触发对应的动作
+     *
+     * @param state 状态
+     */
+    private void transition(State state) {
+        if (RUNNABLE.equals(state)) {
+            runnableNanos = System.nanoTime();
+        }
+        this.state = state;
+        trace(state);
+    }
+
+    /**
+     * 记录到状态跟踪
+     *
+     * @param state 状态
+     */
+    private void trace(State state) {
+        if (stateTraceSize < STATE_TRACE_CAPACITY) {
+            stateTrace |= (long) state.ordinal() << (stateTraceSize * STATE_TRACE_BITS);
+        } else {
+            if (stateTraceOverflow == null) {
+                stateTraceOverflow = new ArrayList<>();
+            }
+            stateTraceOverflow.add(state);
+        }
+        stateTraceSize++;
+    }
+
+    /**
+     * 命中结果缓存时在当前线程上直接使用缓存的结果并到达终态，不提交到线程池
+     *
+     * @return 是否命中
+     * @see CacheableItemStreamMapper
+     */
+    private boolean runCached() {
+        if (ObjUtil.isEmpty(node.getCache()) || context.isBatch()) {
+            return false;
+        }
+        try {
+            if (!((CacheableItemStreamMapper<?, ?, ?, ?>) itemStream).applyCached(this)) {
+                return false;
+            }
+            finish(TERMINATED, null);
+        } catch (Exception e) {
+            finish(INTERRUPTED, e);
+        }
+        endRunner(true);
+        return true;
+    }
+
+    /**
+     * 占用隔离舱的并发数并提交到线程池运行，并发数已满时在隔离舱中排队，见 {@link Bulkhead}
+     */
+    private void dispatch() {
+        final Bulkhead bulkhead = node.getBulkhead();
+        permit = ObjUtil.isNotEmpty(bulkhead);
+        if (permit && !bulkhead.tryAcquire()) {
+            bulkhead.park(this);
+            return;
+        }
+        submit();
+    }
+
+    /**
+     * 提交到线程池运行，按优先级调度时以 {@link ItemStreamPlan#getUpwardRankNanos(ItemStreamPlan.Node)} 为优先级
+     * <p>提交失败时归还占用的并发数
+     */
+    void submit() {
+        final ExecutorMetrics executorMetrics = node.getExecutorMetrics();
+        if (ObjUtil.isNotEmpty(executorMetrics)) {
+            dispatched = true;
+            executorMetrics.enqueue();
+        }
+        try {
+            final Executor executor = getExecutor();
+            if (executor instanceof PriorityExecutor) {
+                ((PriorityExecutor) executor).execute(this::doRunnable, context.getPlan().getUpwardRankNanos(node));
+            } else {
+                executor.execute(this::doRunnable);
+            }
+        } catch (RuntimeException e) {
+            if (dispatched) {
+                dispatched = false;
+                executorMetrics.dequeue();
+            }
+            if (permit) {
+                permit = false;
+                node.getBulkhead().release();
+            }
+            throw e;
+        }
+    }
+
+    private Executor getExecutor() {
+        final Executor executor = node.getExecutor();
+        if (ObjUtil.isEmpty(executor)) {
+            throw new ItemStreamException("Executor must not empty.");
+        }
+        return executor;
+    }
+
+    /**
+     * 运行，并在当前线程上接着运行就绪的被依赖任务
+     */
+    private void doRunnable() {
+        ItemStreamTask task = this;
+        do {
+            task = task.runOnce();
+        } while (task != null);
+    }
+
+    /**
+     * 运行一次，运行期间计入线程池与隔离舱的活跃数量，结束后归还占用的并发数
+     *
+     * @return 需要由当前线程接着运行的被依赖任务，没有时为 null
+     */
+    private ItemStreamTask runOnce() {
+        final ExecutorMetrics executorMetrics = node.getExecutorMetrics();
+        final Bulkhead bulkhead = node.getBulkhead();
+        // 提交到线程池或者被接着运行前已占用并发数
+        final boolean acquired = permit;
+        permit = false;
+        if (ObjUtil.isNotEmpty(executorMetrics)) {
+            if (dispatched) {
+                dispatched = false;
+                executorMetrics.dequeue();
+            }
+            executorMetrics.enter();
+        }
+        try {
+            return doRunOnce();
+        } finally {
+            if (ObjUtil.isNotEmpty(executorMetrics)) {
+                executorMetrics.exit();
+            }
+            if (acquired) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private ItemStreamTask doRunOnce() {
+        if (finished != 0) {
+            // 等待线程池调度期间已被打断
+            endRunner(false);
+            return null;
+        }
+        final NodeMetrics metrics = node.getMetrics();
+        if (ObjUtil.isNotEmpty(metrics)) {
+            metrics.getQueueWait().record(System.nanoTime() - runnableNanos);
+        }
+        boolean last = true;
+        boolean retrying = false;
+        try {
+            startStopWatch(RUNNABLE);
+            if (context.isBatch()) {
+                prepareLanes();
+            }
+            runInterruptibly();
+            if (context.isBatch() && isAllLanesInterrupted()) {
+                throw new ItemStreamException(getName() + " interrupted in all lanes.", lastLaneCause());
+            }
+            continuer = Thread.currentThread();
+            finish(TERMINATED, null);
+            last = endAttempt();
+        } catch (Exception e) {
+            last = endAttempt();
+            continuer = Thread.currentThread();
+            if (last) {
+                retrying = retry(e);
+                if (!retrying) {
+                    finish(INTERRUPTED, e);
+                }
+            }
+        } finally {
+            continuer = null;
+            if (last && !retrying) {
+                endRunner(true);
+            }
+        }
+        final ItemStreamTask next = continuation;
+        continuation = null;
+        return next;
+    }
+
+    /**
+     * 批量运行时按依赖的任务在每个通道上的状态决定本任务需要运行的通道
+     * <p>每个通道与单次运行使用相同的运行模式与打断模式，依赖的任务被打断或者在该通道上被打断时计为打断，
+     * 尚未到达终态的依赖不计数。决定为 INTERRUPTED 的通道以依赖的原因打断；仍为 WAITING 的通道无法再等待，同样被打断
+     */
+    private void prepareLanes() {
+        final int size = context.getInputs().size();
+        laneCauses = null;
+        final List<Class<? extends ItemStream>> dependsOnTypes = node.getDependsOn();
+        final ItemStreamTask[] dependsOn = new ItemStreamTask[dependsOnTypes.size()];
+        for (int i = 0; i < dependsOn.length; i++) {
+            final ItemStreamTask task = context.getTask(dependsOnTypes.get(i));
+            dependsOn[i] = ObjUtil.isNotEmpty(task) && ObjUtil.isNotEmpty(task.terminalState) ? task : null;
+        }
+        final int[] runnable = new int[size];
+        int count = 0;
+        for (int lane = 0; lane < size; lane++) {
+            long counter = 0;
+            Exception cause = null;
+            String source = getName();
+            for (int i = 0; i < dependsOn.length; i++) {
+                if (ObjUtil.isEmpty(dependsOn[i])) {
+                    continue;
+                }
+                final Exception laneCause = dependsOn[i].getLaneInterruptCause(lane);
+                if (ObjUtil.isNotEmpty(laneCause)) {
+                    counter += delta(i, INTERRUPTED);
+                    cause = laneCause;
+                    source = dependsOn[i].getName();
+                } else {
+                    counter += delta(i, TERMINATED);
+                }
+            }
+            final State laneState = dependsOn.length == 0 ? RUNNABLE : getNextState(counter, source);
+            if (RUNNABLE.equals(laneState)) {
+                runnable[count++] = lane;
+            } else if (INTERRUPTED.equals(laneState) && ObjUtil.isNotEmpty(cause)) {
+                interruptLane(lane, wrapInterruptCause(source, cause));
+            } else {
+                interruptLane(lane, new ItemStreamException(getName() + " has no terminated dependsOn in lane " + lane + "."));
+            }
+        }
+        lanes = Arrays.copyOf(runnable, count);
+    }
+
+    private void interruptLane(int lane, Exception cause) {
+        if (ObjUtil.isEmpty(laneCauses)) {
+            laneCauses = new Exception[context.getInputs().size()];
+        }
+        laneCauses[lane] = cause;
+    }
+
+    /**
+     * 批量运行时打断通道
+     *
+     * @param errors 与 {@link #getLanes()} 一一对应，不为空的元素对应的通道以该异常打断
+     */
+    void interruptLanes(Exception[] errors) {
+        for (int i = 0; i < errors.length; i++) {
+            if (ObjUtil.isNotEmpty(errors[i])) {
+                interruptLane(lanes[i], errors[i]);
+            }
+        }
+    }
+
+    /**
+     * 批量运行时按 {@link #getLanes()} 选出本任务需要运行的通道上的元素
+     *
+     * @param values 所有通道上的元素
+     * @return 需要运行的通道上的元素
+     */
+    <T> List<T> selectLanes(List<T> values) {
+        final List<T> selected = new ArrayList<>(lanes.length);
+        for (int lane : lanes) {
+            selected.add(values.get(lane));
+        }
+        return selected;
+    }
+
+    private boolean isAllLanesInterrupted() {
+        if (ObjUtil.isEmpty(laneCauses)) {
+            return false;
+        }
+        for (Exception cause : laneCauses) {
+            if (ObjUtil.isEmpty(cause)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Exception lastLaneCause() {
+        if (ObjUtil.isEmpty(laneCauses)) {
+            return null;
+        }
+        for (int i = laneCauses.length - 1; i >= 0; i--) {
+            if (ObjUtil.isNotEmpty(laneCauses[i])) {
+                return laneCauses[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 由当前线程在本任务完成后接着运行被依赖的任务
+     * <p>每次只保留一个，被依赖的任务需要允许直接运行、历史平均耗时不超过阈值、能占用隔离舱的并发数，并且与本任务使用同一个线程池；
+     * 只在 {@link #continuer} 上接受，其余线程发布终态时由调用方提交到线程池，保证接受的任务一定会被运行
+     *
+     * @param task 就绪的被依赖任务
+     * @return 是否接受
+     */
+    private boolean offerContinuation(ItemStreamTask task) {
+        if (continuer != Thread.currentThread() || continuation != null || !task.node.isInlineable() || task.node.getExecutor() != node.getExecutor()) {
+            return false;
+        }
+        final Bulkhead bulkhead = task.node.getBulkhead();
+        if (ObjUtil.isNotEmpty(bulkhead)) {
+            // 直接运行同样占用并发数，并发数已满时提交到线程池，在隔离舱中排队
+            if (!bulkhead.tryAcquire()) {
+                return false;
+            }
+            task.permit = true;
+        }
+        continuation = task;
+        return true;
+    }
+
+    /**
+     * 在可被 {@link #abort(Exception)} 打断的范围内运行项目流，并记录耗时
+     * <p>运行已取消时不再运行；配置了 {@link Item#timeoutMillis()} 时由共享的定时器在超时后打断；
+     * 配置了对冲时由共享的定时器在等待时间后发起对冲，见 {@link #hedge(long)}。
+     * 退出时清除打断带来的打断标记，避免影响线程池中的下一个任务
+     */
+    private void runInterruptibly() throws Exception {
+        synchronized (this) {
+            if (context.isCancelled()) {
+                throw context.getCancelCause();
+            }
+            runner = Thread.currentThread();
+            attempts = 1;
+        }
+        final ScheduledFuture<?> timeout = node.getTimeoutMillis() > 0
+                ? Timeouts.schedule(this::timeout, node.getTimeoutMillis())
+                : null;
+        final long hedgeDelayNanos = node.isHedged() && !context.isBatch() ? node.getHedgeDelayNanos() : 0;
+        final ScheduledFuture<?> hedge = hedgeDelayNanos > 0
+                ? Timeouts.schedule(() -> hedge(hedgeDelayNanos), hedgeDelayNanos, TimeUnit.NANOSECONDS)
+                : null;
+        final long start = System.nanoTime();
+        startNanos = start;
+        try {
+            itemStream.doRunnableInterval(this);
+        } finally {
+            final long duration = System.nanoTime() - start;
+            node.recordDuration(duration);
+            if (ObjUtil.isNotEmpty(node.getMetrics())) {
+                node.getMetrics().getExecution().record(duration);
+            }
+            if (ObjUtil.isNotEmpty(timeout)) {
+                timeout.cancel(false);
+            }
+            if (ObjUtil.isNotEmpty(hedge)) {
+                hedge.cancel(false);
+            }
+            synchronized (this) {
+                runner = null;
+                if (finished != 0 || context.isCancelled()) {
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * 对冲，在线程池中再运行一次项目流，未达到 {@link ItemStreamPlan.Node#getMaxHedges()} 时间隔相同的等待时间再次对冲
+     *
+     * @param delayNanos 对冲的等待时间
+     */
+    private void hedge(long delayNanos) {
+        final boolean again;
+        final Bulkhead bulkhead = node.getBulkhead();
+        synchronized (this) {
+            if (finished != 0 || context.isCancelled() || attempts == 0) {
+                return;
+            }
+            if (ObjUtil.isNotEmpty(bulkhead) && !bulkhead.tryAcquire()) {
+                // 并发数已满时不再对冲
+                return;
+            }
+            attempts++;
+            hedges++;
+            again = hedges < node.getMaxHedges();
+        }
+        if (ObjUtil.isNotEmpty(node.getMetrics())) {
+            node.getMetrics().recordHedge();
+        }
+        if (again) {
+            Timeouts.schedule(() -> hedge(delayNanos), delayNanos, TimeUnit.NANOSECONDS);
+        }
+        final ExecutorMetrics executorMetrics = node.getExecutorMetrics();
+        if (ObjUtil.isNotEmpty(executorMetrics)) {
+            executorMetrics.enqueue();
+        }
+        try {
+            getExecutor().execute(this::runHedge);
+        } catch (RuntimeException e) {
+            if (ObjUtil.isNotEmpty(executorMetrics)) {
+                executorMetrics.dequeue();
+            }
+            if (ObjUtil.isNotEmpty(bulkhead)) {
+                bulkhead.release();
+            }
+            endHedge(false, e);
+        }
+    }
+
+    /**
+     * 运行对冲，运行期间计入线程池与隔离舱的活跃数量，结束后归还对冲时占用的并发数
+     */
+    private void runHedge() {
+        final ExecutorMetrics executorMetrics = node.getExecutorMetrics();
+        if (ObjUtil.isNotEmpty(executorMetrics)) {
+            executorMetrics.dequeue();
+            executorMetrics.enter();
+        }
+        try {
+            doRunHedge();
+        } finally {
+            if (ObjUtil.isNotEmpty(executorMetrics)) {
+                executorMetrics.exit();
+            }
+            if (ObjUtil.isNotEmpty(node.getBulkhead())) {
+                node.getBulkhead().release();
+            }
+        }
+    }
+
+    /**
+     * 运行对冲，成功时到达终态并打断其余的运行
+     */
+    private void doRunHedge() {
+        final Thread current = Thread.currentThread();
+        final boolean skip;
+        synchronized (this) {
+            skip = finished != 0 || context.isCancelled();
+            if (!skip) {
+                if (ObjUtil.isEmpty(hedgeRunners)) {
+                    hedgeRunners = new ArrayList<>(node.getMaxHedges());
+                }
+                hedgeRunners.add(current);
+            }
+        }
+        if (skip) {
+            endHedge(false, context.getCancelCause());
+            return;
+        }
+        Exception failure = null;
+        try {
+            itemStream.doRunnableInterval(this);
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            synchronized (this) {
+                hedgeRunners.remove(current);
+                if (finished != 0 || context.isCancelled()) {
+                    Thread.interrupted();
+                }
+            }
+        }
+        endHedge(ObjUtil.isEmpty(failure), failure);
+    }
+
+    /**
+     * 结束一次对冲，成功时先到达终态再结束，保证失败的运行不会先于成功的运行到达终态
+     *
+     * @param success 是否成功
+     * @param failure 失败的原因
+     */
+    private void endHedge(boolean success, Exception failure) {
+        if (success && finish(TERMINATED, null) && ObjUtil.isNotEmpty(node.getMetrics())) {
+            node.getMetrics().recordHedgeWin();
+        }
+        if (!endAttempt()) {
+            return;
+        }
+        if (!success) {
+            if (retry(failure)) {
+                return;
+            }
+            finish(INTERRUPTED, failure);
+        }
+        endRunner(true);
+    }
+
+    /**
+     * 结束一次运行
+     *
+     * @return 是否为最后一个结束的运行，最后一个结束的运行负责清理与归还项目流实例
+     */
+    private boolean endAttempt() {
+        if (!node.isHedged()) {
+            return true;
+        }
+        synchronized (this) {
+            return --attempts <= 0;
+        }
+    }
+
+    /**
+     * 重试，等待 {@link Item#backoffMillis()} 后重新进入 RUNNABLE，等待期间不占用线程
+     * <p>已到达终态、已取消、超过 {@link Item#retries()} 或者异常不需要重试时不重试
+     *
+     * @param ex 运行失败的异常
+     * @return 是否重试
+     */
+    private boolean retry(Exception ex) {
+        if (retries >= node.getRetries() || finished != 0 || context.isCancelled() || !node.isRetryOn(ex)) {
+            return false;
+        }
+        retries++;
+        final long backoffNanos = node.getBackoffNanos(retries);
+        if (log.isDebugEnabled()) {
+            log.debug("[{}]: [retry] = {}/{} after {} ms, {}", getName(), retries, node.getRetries(), TimeUnit.NANOSECONDS.toMillis(backoffNanos), ex.toString());
+        }
+        transition(RETRY);
+        recordState(RETRY);
+        startStopWatch(RETRY);
+        if (backoffNanos > 0) {
+            // 定时器只负责唤醒，重新进入 RUNNABLE 与查找缓存、提交到线程池在项目流的线程池中进行
+            Timeouts.schedule(() -> Timeouts.handOff(node.getExecutor(), this::resume), backoffNanos, TimeUnit.NANOSECONDS);
+        } else {
+            resume();
+        }
+        return true;
+    }
+
+    /**
+     * 重试等待结束，重新进入 RUNNABLE，等待期间被取消时不再运行
+     */
+    private void resume() {
+        if (finished == 0) {
+            setState(RUNNABLE);
+        } else {
+            endRunner(false);
+        }
+    }
+
+    /**
+     * 超时，定时器线程上只决定打断并设置运行线程的打断标记，记录原因与发布 INTERRUPTED 交给线程池。
+     * 运行线程先被打断，线程池被超时的项目流占满时也能腾出线程
+     */
+    private void timeout() {
+        if (!FINISHED.compareAndSet(this, 0, ABORTED)) {
+            return;
+        }
+        final Exception cause = new ItemStreamTimeoutException(getName() + " timed out after " + node.getTimeoutMillis() + " ms.");
+        endNanos = System.nanoTime();
+        interruptRunners(null);
+        Timeouts.handOff(node.getExecutor(), () -> aborted(cause));
+    }
+
+    /**
+     * 打断，不等待项目流运行结束，立即以 cause 发布 INTERRUPTED，并打断正在运行项目流的线程
+     * <p>项目流运行结束后的结果会被忽略
+     *
+     * @param cause 打断的原因
+     * @return 是否由本次调用到达终态
+     */
+    boolean abort(Exception cause) {
+        if (!FINISHED.compareAndSet(this, 0, ABORTED)) {
+            return false;
+        }
+        endNanos = System.nanoTime();
+        aborted(cause);
+        return true;
+    }
+
+    /**
+     * 打断尚未交给线程池、之后也不会再运行的任务，例如就绪时运行已取消或者隔离舱提交失败，由本次调用代替运行方结束运行
+     *
+     * @param cause 打断的原因
+     */
+    void abortUnscheduled(Exception cause) {
+        abort(cause);
+        endRunner(false);
+    }
+
+    /**
+     * 已决定打断，以 cause 发布 INTERRUPTED，并打断正在运行项目流的线程
+     * <p>发布结束后才允许清理与归还实例，运行方先结束时由本次调用完成，见 {@link #endRunner(boolean)}
+     *
+     * @param cause 打断的原因
+     */
+    private void aborted(Exception cause) {
+        try {
+            addInterruptCause(cause);
+            terminalState = INTERRUPTED;
+            recordState(INTERRUPTED);
+            interruptRunners(null);
+            setState(INTERRUPTED);
+        } finally {
+            endAbort(ABORT_PUBLISHED);
+        }
+    }
+
+    /**
+     * 运行方不再使用项目流实例，清理并结束运行
+     * <p>被 {@link #abort(Exception)} 或超时打断时，打断方可能仍在其他线程上发布 INTERRUPTED 并调用 ex，
+     * 由运行方与打断方中后结束的一方清理并结束运行，保证清理在 ex 之后，实例在 ex 返回前不会被归还与再次借用
+     *
+     * @param cleanup 是否清理，项目流运行过时为 true
+     */
+    private void endRunner(boolean cleanup) {
+        if (finished == ABORTED) {
+            endAbort(cleanup ? RUNNER_EXITED | ABORT_CLEANUP : RUNNER_EXITED);
+            return;
+        }
+        if (cleanup) {
+            itemStream.doRunnableFinally(this);
+        }
+        endRun();
+    }
+
+    /**
+     * 结束打断的一方，运行方与打断方都结束后清理并结束运行
+     *
+     * @param phase 结束的一方
+     */
+    private void endAbort(int phase) {
+        final int ended = ABORT_ENDED.accumulateAndGet(this, phase, (current, update) -> current | update);
+        if ((ended & (RUNNER_EXITED | ABORT_PUBLISHED)) != (RUNNER_EXITED | ABORT_PUBLISHED)) {
+            return;
+        }
+        if ((ended & ABORT_CLEANUP) != 0) {
+            itemStream.doRunnableFinally(this);
+        }
+        endRun();
+    }
+
+    /**
+     * 打断正在运行项目流的线程，包括对冲的线程
+     *
+     * @param except 不打断的线程，可以为空
+     */
+    private synchronized void interruptRunners(Thread except) {
+        if (ObjUtil.isNotEmpty(runner) && runner != except) {
+            runner.interrupt();
+        }
+        if (ObjUtil.isNotEmpty(hedgeRunners)) {
+            for (Thread hedgeRunner : hedgeRunners) {
+                if (hedgeRunner != except) {
+                    hedgeRunner.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录状态的指标，collector 到达终态时同时记录端到端耗时与关键路径上的项目流
+     *
+     * @param state 状态
+     */
+    private void recordState(State state) {
+        final NodeMetrics metrics = node.getMetrics();
+        if (ObjUtil.isEmpty(metrics)) {
+            return;
+        }
+        metrics.recordState(state);
+        if (node.isCollector() && (TERMINATED.equals(state) || INTERRUPTED.equals(state))) {
+            context.getPlan().getMetrics().getRunLatency().record(endNanos - context.getStartNanos());
+            for (ItemStreamTask task = this; task != null; task = task.trigger) {
+                task.node.getMetrics().recordCritical();
+            }
+        }
+    }
+
+    /**
+     * 到达终态，只有第一次生效，对冲时同时打断其余的运行
+     *
+     * @param state 终态
+     * @param cause 打断的原因，可以为空
+     * @return 是否由本次调用到达终态
+     */
+    private boolean finish(State state, Exception cause) {
+        if (!FINISHED.compareAndSet(this, 0, 1)) {
+            return false;
+        }
+        if (ObjUtil.isNotEmpty(cause)) {
+            addInterruptCause(cause);
+        }
+        endNanos = System.nanoTime();
+        terminalState = state;
+        recordState(state);
+        if (node.isHedged()) {
+            interruptRunners(Thread.currentThread());
+        }
+        setState(state);
+        return true;
+    }
+
+    /**
+     * 终止
+     */
+    private void doTerminated() {
+        stopStopWatch(TERMINATED);
+        // 先订阅事务事件再通知被依赖的任务，被依赖的任务被打断时本任务一定能收到回滚
+        itemStream.doTerminated(this);
+        publish(TERMINATED, null);
+    }
+
+    /**
+     * 打断
+     */
+    private void doInterrupt() {
+        stopStopWatch(INTERRUPTED);
+        publish(INTERRUPTED, getLastInterruptCause());
+        itemStream.doInterrupt(this);
+    }
+
+    /**
+     * 回滚
+     */
+    private void doRollback() {
+        try {
+            itemStream.doRollback(this);
+        } finally {
+            endTx(TX_SETTLED);
+        }
+    }
+
+    /**
+     * 本任务不会再运行项目流，未开启事务时归还项目流实例；开启事务时等待提交或回滚结束，collector 已到达终态时提交
+     */
+    private void endRun() {
+        if (!node.isTx()) {
+            release();
+            return;
+        }
+        endTx(TX_RUN_ENDED);
+        if (context.isTxEnded()) {
+            commit();
+        }
+    }
+
+    /**
+     * 提交，collector 到达终态后没有回滚的任务在运行结束时提交，提交后不再回滚
+     */
+    void commit() {
+        if (TX_DECIDED.compareAndSet(this, 0, 1)) {
+            endTx(TX_SETTLED);
+        }
+    }
+
+    /**
+     * 结束事务的一个阶段，运行与提交或回滚都结束后归还项目流实例
+     *
+     * @param phase 阶段
+     */
+    private void endTx(int phase) {
+        if (TX_ENDED.accumulateAndGet(this, phase, (ended, current) -> ended | current) == (TX_RUN_ENDED | TX_SETTLED)) {
+            release();
+        }
+    }
+
+    /**
+     * 运行是否已结束，开启事务时有效
+     *
+     * @return 是否已结束
+     */
+    boolean isRunEnded() {
+        return (txEnded & TX_RUN_ENDED) != 0;
+    }
+
+    /**
+     * 开始记录状态的耗时，只有开启 prettyPrint 时记录
+     *
+     * @param state 状态
+     */
+    private void startStopWatch(State state) {
+        if (!node.isPrettyPrint()) {
+            return;
+        }
+        final StopWatch stopWatch = getStopWatch();
+        if (stopWatch.isRunning()) {
+            stopWatch.stop();
+        }
+        stopWatch.start(node.getStopWatchName(state));
+    }
+
+    private void stopStopWatch(State state) {
+        if (!node.isPrettyPrint()) {
+            return;
+        }
+        final StopWatch stopWatch = getStopWatch();
+        if (stopWatch.isRunning()) {
+            stopWatch.stop();
+        } else {
+            stopWatch.start(node.getStopWatchName(state));
+            stopWatch.stop();
+        }
+        if (node.isPrettyPrint()) {
+            log.info(stopWatch.shortSummary(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 归还项目流实例，只会归还一次
+     */
+    void release() {
+        if (RELEASED.compareAndSet(this, 0, 1)) {
+            node.release(itemStream);
+        }
+    }
+
+    /**
+     * 项目流实例是否已归还
+     *
+     * @return 是否已归还
+     */
+    boolean isReleased() {
+        return released != 0;
+    }
+
+    /**
+     * 通知被依赖的任务
+     *
+     * @param state 状态
+     * @param ex    异常
+     */
+    private void publish(State state, Exception ex) {
+        final int[] slots = node.getBeDependsOnSlots();
+        for (int i = 0; i < beDependsOn.length; i++) {
+            beDependsOn[i].onDependsOn(slots[i], this, state, ex);
+        }
+    }
+
+    /**
+     * 依赖的任务到达终态，由完成的任务所在的线程直接调用
+     * <p>计数与状态决定通过一次 CAS 完成，只有一个依赖事件能决定下一个状态，决定后的依赖事件会被忽略
+     * <p>变为 RUNNABLE 时优先交给完成的任务所在的线程接着运行，见 {@link #offerContinuation(ItemStreamTask)}。
+     * 开启结果缓存的任务不接着运行，而是在 {@link #setState(State)} 中先查找缓存，命中时直接到达终态
+     *
+     * @param slot      依赖的序号
+     * @param dependsOn 依赖的任务
+     * @param state     依赖的任务的状态
+     * @param ex        异常
+     */
+    private void onDependsOn(int slot, ItemStreamTask dependsOn, State state, Exception ex) {
+        final long delta = delta(slot, state);
+        long current;
+        long next;
+        State nextState;
+        do {
+            current = dependsOnCounter;
+            if ((current & DECIDED) != 0) {
+                return;
+            }
+            next = current + delta;
+            nextState = getNextState(next, dependsOn.getName());
+            if (!WAITING.equals(nextState)) {
+                next |= DECIDED;
+            }
+        } while (!DEPENDS_ON_COUNTER.compareAndSet(this, current, next));
+        dependsOnState[slot] = state;
+        if (!WAITING.equals(nextState)) {
+            trigger = dependsOn;
+            decided();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("[{}]: [new dependsOnState] = {}", dependsOn.getName() + "->" + getName(), getDependsOnState());
+            log.debug("[{}]: [new state] = [{} => {}]", dependsOn.getName() + "->" + getName(), this.state, nextState);
+        }
+        if (INTERRUPTED.equals(nextState)) {
+            finish(INTERRUPTED, ObjUtil.isNotEmpty(ex) ? wrapInterruptCause(dependsOn.getName(), ex) : null);
+        } else if (RUNNABLE.equals(nextState) && ObjUtil.isEmpty(node.getCache()) && dependsOn.offerContinuation(this)) {
+            transition(RUNNABLE);
+        } else if (!WAITING.equals(nextState)) {
+            setState(nextState);
+        }
+        if (INTERRUPTED.equals(nextState)) {
+            endRunner(false);
+        }
+    }
+
+    /**
+     * 本任务已决定状态，不会再等待依赖，依赖的任务少了一个可以影响的被依赖任务
+     */
+    private void decided() {
+        if (!context.getPlan().isCancelIrrelevant()) {
+            return;
+        }
+        for (ItemStreamTask task : dependsOn) {
+            if (ObjUtil.isNotEmpty(task) && UNDECIDED_BE_DEPENDS_ON.decrementAndGet(task) == 0) {
+                task.cancelIrrelevant();
+            }
+        }
+    }
+
+    /**
+     * 所有被依赖的任务都已决定状态，本任务的结果不再影响 collector，取消本任务
+     * <p>尚未决定状态时由本次调用决定为 INTERRUPTED，不再调度；已在运行或等待运行时打断。开启事务与只有副作用的项目流不取消
+     */
+    private void cancelIrrelevant() {
+        if (node.isTx() || node.isSideEffect() || finished != 0) {
+            return;
+        }
+        final Exception cause = new CancellationException(getName() + " can no longer affect the collector.");
+        long current;
+        // 没有依赖的任务开始运行时直接就绪，不经过依赖计数
+        while (!isSingle() && ((current = dependsOnCounter) & DECIDED) == 0) {
+            if (DEPENDS_ON_COUNTER.compareAndSet(this, current, current | DECIDED)) {
+                decided();
+                if (finish(INTERRUPTED, cause)) {
+                    recordIrrelevant();
+                }
+                release();
+                return;
+            }
+        }
+        if (abort(cause)) {
+            recordIrrelevant();
+        }
+    }
+
+    private void recordIrrelevant() {
+        if (ObjUtil.isNotEmpty(node.getMetrics())) {
+            node.getMetrics().recordIrrelevant(startNanos == 0 ? 0 : endNanos - startNanos);
+        }
+    }
+
+    private long delta(int slot, State state) {
+        long delta = 0;
+        if (TERMINATED.equals(state)) {
+            if (!RunnableMode.MUST.equals(node.getRunnableMode()) || node.isRunnableMust(slot)) {
+                delta += 1L << TERMINATED_SHIFT;
+            }
+            if (node.isInterruptedMust(slot)) {
+                delta += 1L << TERMINATED_MUST_SHIFT;
+            }
+        } else if (INTERRUPTED.equals(state)) {
+            delta += 1L << INTERRUPTED_SHIFT;
+            if (node.isInterruptedMust(slot)) {
+                delta += 1L << INTERRUPTED_MUST_SHIFT;
+            }
+        }
+        return delta;
+    }
+
+    private static int count(long counter, int shift) {
+        return (int) ((counter >>> shift) & COUNT_MASK);
+    }
+
+    private State getNextState(long counter, String source) {
+        final InterruptedMode interruptedMode = node.getInterruptedMode();
+        int terminatedCount = count(counter, TERMINATED_SHIFT);
+        int interruptedCount = 0;
+        final int interrupted = count(counter, INTERRUPTED_SHIFT);
+        if (InterruptedMode.ALL.equals(interruptedMode) || InterruptedMode.ANY.equals(interruptedMode)) {
+            interruptedCount = interrupted;
+        } else if (InterruptedMode.MUST.equals(interruptedMode)) {
+            interruptedCount = count(counter, INTERRUPTED_MUST_SHIFT);
+            if (count(counter, TERMINATED_MUST_SHIFT) == node.getInterruptedMust().size()) {
+                terminatedCount += interrupted - interruptedCount;
+            }
+        } else if (InterruptedMode.NONE.equals(interruptedMode)) {
+            terminatedCount += interrupted;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("[{}]: [interruptedCount] = {}, [terminatedCount] = {}", source + "->" + getName(), interruptedCount, terminatedCount);
+            log.debug("[{}]: [interruptedMode] = {}, [runnableMode] = {}", source + "->" + getName(), interruptedMode, node.getRunnableMode());
+        }
+        return getNextStateByInterruptedMode(interruptedCount, terminatedCount);
+    }
+
+    private State getNextStateByInterruptedMode(int interruptedCount, int terminatedCount) {
+        final InterruptedMode interruptedMode = node.getInterruptedMode();
+        if (InterruptedMode.ALL.equals(interruptedMode)) {
+            if (interruptedCount == dependsOnState.length) {
+                return INTERRUPTED;
+            } else {
+                return getNextStateByRunnableMode(interruptedCount, terminatedCount);
+            }
+        } else if (InterruptedMode.ANY.equals(interruptedMode)) {
+            if (interruptedCount > 0) {
+                return INTERRUPTED;
+            } else {
+                return getNextStateByRunnableMode(interruptedCount, terminatedCount);
+            }
+        } else if (InterruptedMode.MUST.equals(interruptedMode)) {
+            if (interruptedCount == node.getInterruptedMust().size()) {
+                return INTERRUPTED;
+            } else {
+                return getNextStateByRunnableMode(interruptedCount, terminatedCount);
+            }
+        } else if (InterruptedMode.NONE.equals(interruptedMode)) {
+            return getNextStateByRunnableMode(interruptedCount, terminatedCount);
+        }
+        return null;
+    }
+
+    private State getNextStateByRunnableMode(int interruptedCount, int terminatedCount) {
+        final RunnableMode runnableMode = node.getRunnableMode();
+        if (RunnableMode.ALL.equals(runnableMode)) {
+            if (terminatedCount == dependsOnState.length - interruptedCount) {
+                return RUNNABLE;
+            } else {
+                return WAITING;
+            }
+        } else if (RunnableMode.ANY.equals(runnableMode)) {
+            if (terminatedCount > 0) {
+                return RUNNABLE;
+            } else {
+                return WAITING;
+            }
+        } else if (RunnableMode.MUST.equals(runnableMode)) {
+            if (terminatedCount == node.getRunnableMust().size() - interruptedCount) {
+                return RUNNABLE;
+            } else {
+                return WAITING;
+            }
+        }
+        return null;
+    }
+
+    private Exception wrapInterruptCause(String name, Exception ex) {
+        return new ItemStreamException("Exception from " + name + "; " + ex.getMessage(), ex);
+    }
+
+    /**
+     * 订阅事务事件
+     *
+     * @param event 事件
+     */
+    @Subscribe
+    private void subscribe(ItemStreamEvent event) {
+        if (node.isTx() && ROLLBACK.equals(event.getState()) && TX_DECIDED.compareAndSet(this, 0, 1)) {
+            log.debug("[{}]: [new state] = [{} => {}]", event.getName() + "->" + getName(), state, ROLLBACK);
+            setState(ROLLBACK);
+        }
+    }
+
+    /**
+     * 获取依赖的其他项目流的状态
+     *
+     * @param itemStream 项目流
+     * @return 状态
+     */
+    public State getDependsOnState(Class<? extends ItemStream> itemStream) {
+        final int slot = node.getDependsOnSlot(itemStream);
+        return slot < 0 ? null : dependsOnState[slot];
+    }
+
+    public Map<Class<? extends ItemStream>, State> getDependsOnState() {
+        final Map<Class<? extends ItemStream>, State> states = new LinkedHashMap<>(dependsOnState.length * 2);
+        for (int i = 0; i < dependsOnState.length; i++) {
+            states.put(node.getDependsOn().get(i), dependsOnState[i]);
+        }
+        return states;
+    }
+
+    /**
+     * 批量运行时获取通道被打断的原因
+     * <p>任务被打断时所有通道都视为被打断
+     *
+     * @param lane 通道序号
+     * @return 打断的原因，通道未被打断时为空
+     */
+    public Exception getLaneInterruptCause(int lane) {
+        if (ObjUtil.isNotEmpty(laneCauses) && ObjUtil.isNotEmpty(laneCauses[lane])) {
+            return laneCauses[lane];
+        }
+        if (INTERRUPTED.equals(terminalState)) {
+            final Exception cause = getLastInterruptCause();
+            return ObjUtil.isNotEmpty(cause) ? cause : new ItemStreamException(getName() + " interrupted.");
+        }
+        return null;
+    }
+
+    /**
+     * 批量运行时获取本任务需要运行的通道
+     *
+     * @return 通道序号，按升序排列
+     */
+    public int[] getLanes() {
+        return lanes;
+    }
+
+    /**
+     * 获取就绪的时间，即进入 RUNNABLE 的时间，未运行的任务为到达终态的时间
+     *
+     * @return 就绪的时间，{@link System#nanoTime()}
+     */
+    public long getReadyNanos() {
+        return runnableNanos != 0 ? runnableNanos : endNanos;
+    }
+
+    /**
+     * 获取开始运行项目流的时间
+     *
+     * @return 开始运行的时间，{@link System#nanoTime()}，未运行时为 0
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * 获取到达终态的时间
+     *
+     * @return 到达终态的时间，{@link System#nanoTime()}，未到达终态时为 0
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    /**
+     * 获取决定本任务状态的依赖任务
+     * <p>{@link RunnableMode#ALL} 时为最后一个终止的依赖，{@link RunnableMode#ANY} 时为第一个终止的依赖，
+     * 被依赖打断时为打断本任务的依赖
+     *
+     * @return 依赖任务，没有依赖或者被取消时为空
+     */
+    public ItemStreamTask getTrigger() {
+        return trigger;
+    }
+
+    public String getName() {
+        return node.getName();
+    }
+
+    public ItemStreamPlan.Node getNode() {
+        return node;
+    }
+
+    public ItemStream getItemStream() {
+        return itemStream;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <I, O> Context<I, O> getContext() {
+        return (Context<I, O>) context;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 获取已经重试的次数
+     *
+     * @return 次数
+     * @see Item#retries()
+     */
+    public int getRetryCount() {
+        return retries;
+    }
+
+    public boolean isSingle() {
+        return dependsOnState.length == 0;
+    }
+
+    /**
+     * 获取打断的原因
+     *
+     * @return 打断的原因，没有被打断时为空的队列
+     */
+    public Deque<Exception> getInterruptCause() {
+        return interruptCause == null ? new LinkedList<>() : interruptCause;
+    }
+
+    private void addInterruptCause(Exception cause) {
+        if (interruptCause == null) {
+            interruptCause = new LinkedList<>();
+        }
+        interruptCause.offerLast(cause);
+    }
+
+    private Exception getLastInterruptCause() {
+        return interruptCause == null ? null : interruptCause.peekLast();
+    }
+
+    /**
+     * 获取状态跟踪
+     *
+     * @return 按顺序排列的状态，每次调用返回新的队列
+     */
+    public Deque<State> getStateTrace() {
+        final Deque<State> trace = new ArrayDeque<>(stateTraceSize);
+        for (int i = 0; i < Math.min(stateTraceSize, STATE_TRACE_CAPACITY); i++) {
+            trace.offerLast(STATES[(int) (stateTrace >>> (i * STATE_TRACE_BITS)) & ((1 << STATE_TRACE_BITS) - 1)]);
+        }
+        if (ObjUtil.isNotEmpty(stateTraceOverflow)) {
+            trace.addAll(stateTraceOverflow);
+        }
+        return trace;
+    }
+
+    /**
+     * 获取 stopWatch，未开启 prettyPrint 时不记录各个状态的耗时
+     *
+     * @return stopWatch
+     */
+    public synchronized StopWatch getStopWatch() {
+        if (stopWatch == null) {
+            stopWatch = new StopWatch(node.getName());
+        }
+        return stopWatch;
+    }
+}
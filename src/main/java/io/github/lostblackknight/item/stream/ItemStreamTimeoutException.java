@@ -0,0 +1,15 @@
+package io.github.lostblackknight.item.stream;
+
+/**
+ * 项目流超时异常
+ * <p>项目流超过 {@link Item#timeoutMillis()}，或者运行超过 {@link ItemStreamClient#run(java.time.Duration)} 的期限时抛出
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 16:05
+ * @version 1.0.0
+ */
+public class ItemStreamTimeoutException extends ItemStreamException {
+
+    public ItemStreamTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 项目流的指标，跨运行累计
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 18:10
+ * @version 1.0.0
+ * @see ItemStreamMetrics
+ */
+public final class NodeMetrics {
+
+    /**
+     * 项目流的名称
+     */
+    private final String name;
+
+    /**
+     * 运行耗时，即 map 或 collect 的耗时
+     */
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    /**
+     * 排队耗时，从进入 RUNNABLE 到开始运行
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /**
+     * 终止次数
+     */
+    private final LongAdder terminated = new LongAdder();
+
+    /**
+     * 打断次数
+     */
+    private final LongAdder interrupted = new LongAdder();
+
+    /**
+     * 回滚次数
+     */
+    private final LongAdder rollback = new LongAdder();
+
+    /**
+     * 因不再影响 collector 被取消的次数
+     */
+    private final LongAdder irrelevant = new LongAdder();
+
+    /**
+     * 被取消前已经运行的耗时，即浪费的运行耗时
+     */
+    private final LongAdder wastedNanos = new LongAdder();
+
+    /**
+     * 重试次数
+     */
+    private final LongAdder retry = new LongAdder();
+
+    /**
+     * 对冲的次数
+     */
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * 对冲胜出的次数
+     */
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * 在关键路径上的次数
+     */
+    private final LongAdder critical = new LongAdder();
+
+    NodeMetrics(String name) {
+        this.name = name;
+    }
+
+    void recordState(State state) {
+        switch (state) {
+            case TERMINATED:
+                terminated.increment();
+                break;
+            case INTERRUPTED:
+                interrupted.increment();
+                break;
+            case ROLLBACK:
+                rollback.increment();
+                break;
+            case RETRY:
+                retry.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    void recordIrrelevant(long wastedNanos) {
+        irrelevant.increment();
+        this.wastedNanos.add(wastedNanos);
+    }
+
+    void recordHedge() {
+        hedges.increment();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    void recordCritical() {
+        critical.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public long getTerminatedCount() {
+        return terminated.sum();
+    }
+
+    public long getInterruptedCount() {
+        return interrupted.sum();
+    }
+
+    public long getRollbackCount() {
+        return rollback.sum();
+    }
+
+    /**
+     * 获取因不再影响 collector 被取消的次数
+     *
+     * @return 次数
+     * @see GlobalSetup#setCancelIrrelevant(boolean)
+     */
+    public long getIrrelevantCount() {
+        return irrelevant.sum();
+    }
+
+    /**
+     * 获取因不再影响 collector 被取消前已经运行的累计耗时
+     *
+     * @return 耗时
+     */
+    public long getWastedNanos() {
+        return wastedNanos.sum();
+    }
+
+    public long getRetryCount() {
+        return retry.sum();
+    }
+
+    /**
+     * 获取对冲的次数，与运行耗时的记录数相比即为对冲率
+     *
+     * @return 次数
+     * @see Item#hedgeAfterMillis()
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * 获取对冲胜出的次数，即对冲先于原来的运行成功的次数
+     *
+     * @return 次数
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * 获取在关键路径上的次数，与 {@link ItemStreamMetrics#getRunLatency()} 的记录数相比即为在关键路径上的比例
+     *
+     * @return 次数
+     * @see CriticalPath
+     */
+    public long getCriticalCount() {
+        return critical.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + " [terminated=" + getTerminatedCount()
+                + ", interrupted=" + getInterruptedCount()
+                + ", rollback=" + getRollbackCount()
+                + ", irrelevant=" + getIrrelevantCount()
+                + ", wasted=" + TimeUnit.NANOSECONDS.toMicros(getWastedNanos()) + "us"
+                + ", retry=" + getRetryCount()
+                + ", hedge=" + getHedgeCount()
+                + ", hedgeWin=" + getHedgeWinCount()
+                + ", critical=" + getCriticalCount()
+                + ", execution={" + execution.snapshot()
+                + "}, queueWait={" + queueWait.snapshot() + "}]";
+    }
+}
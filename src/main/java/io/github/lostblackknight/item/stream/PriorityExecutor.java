@@ -0,0 +1,97 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按优先级调度的线程池
+ * <p>提交的任务先进入优先队列，再向 {@link GlobalSetup#getExecutor()} 提交一个取任务的执行单元，
+ * 执行单元真正开始运行时才从优先队列中取出当前优先级最高的任务，因此线程池繁忙时排队的任务按优先级而不是提交的顺序运行，
+ * 同时并发数仍由原线程池控制。优先级相同时按提交的顺序运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 19:05
+ * @version 1.0.0
+ * @see GlobalSetup#setPriorityScheduling(boolean)
+ * @see ItemStreamPlan#getUpwardRankNanos(ItemStreamPlan.Node)
+ */
+final class PriorityExecutor implements Executor {
+
+    /**
+     * 原线程池
+     */
+    private final Executor delegate;
+
+    /**
+     * 等待运行的任务，优先级高的在前
+     */
+    private final PriorityBlockingQueue<Entry> queue = new PriorityBlockingQueue<>();
+
+    /**
+     * 提交的序号
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    PriorityExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 以最低优先级提交
+     *
+     * @param command 任务
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(command, 0);
+    }
+
+    /**
+     * 按优先级提交
+     *
+     * @param command  任务
+     * @param priority 优先级，越大越先运行
+     */
+    void execute(Runnable command, long priority) {
+        final Entry entry = new Entry(command, priority, sequence.getAndIncrement());
+        queue.offer(entry);
+        try {
+            delegate.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            queue.remove(entry);
+            throw e;
+        }
+    }
+
+    /**
+     * 运行优先级最高的任务，每个执行单元对应一个任务，队列不会为空
+     */
+    private void runNext() {
+        final Entry entry = queue.poll();
+        if (entry != null) {
+            entry.command.run();
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final Runnable command;
+
+        private final long priority;
+
+        private final long sequence;
+
+        private Entry(Runnable command, long priority, long sequence) {
+            this.command = command;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            final int compare = Long.compare(other.priority, priority);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.lostblackknight.item.stream;
+
+/**
+ * 实例作用域
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 13:05
+ * @version 1.0.0
+ * @see Item
+ * @see ItemStreamPlan
+ */
+public enum Scope {
+
+    /**
+     * 单例，同一个执行计划的所有运行共享一个实例，项目流必须是无状态或线程安全的
+     */
+    SINGLETON,
+
+    /**
+     * 池化，每次运行从有界的对象池中借用实例，运行结束后归还
+     */
+    POOLED,
+
+    /**
+     * 原型，每次运行创建新的实例
+     */
+    PROTOTYPE
+}
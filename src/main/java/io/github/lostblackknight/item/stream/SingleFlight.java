@@ -0,0 +1,115 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同键的并发运行，由 {@link ItemStreamPlan} 持有
+ * <p>同一个执行计划上相同键的运行正在进行时，后来的运行不再创建任务，而是等待正在进行的运行结束后使用其输出：
+ * 未指定复制方式时直接共享正在进行的运行的输出，调用方只能读取；指定复制方式时复制到自己的输出中。
+ * 正在进行的运行被打断或者取消时，后来的运行以相同的原因结束；后来的运行被取消时不影响正在进行的运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 20:15
+ * @version 1.0.0
+ * @see ItemStreamClient#coalesce(Object)
+ * @see ItemStreamClient#coalesce(Object, BiConsumer)
+ */
+public final class SingleFlight {
+
+    /**
+     * 正在进行的运行
+     */
+    private final Map<Object, Context<?, ?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 实际运行的次数
+     */
+    private final LongAdder leaders = new LongAdder();
+
+    /**
+     * 合并到正在进行的运行，即节省的运行次数
+     */
+    private final LongAdder saved = new LongAdder();
+
+    /**
+     * 运行，相同键的运行正在进行时合并到该运行
+     *
+     * @param context 上下文
+     * @param starter 实际开始运行
+     * @return 输出
+     */
+    @SuppressWarnings("unchecked")
+    <I, O> CompletableFuture<O> run(Context<I, O> context, Supplier<CompletableFuture<O>> starter) {
+        final Object key = context.getCoalesceKey();
+        final Context<I, O> leader = (Context<I, O>) inFlight.putIfAbsent(key, context);
+        if (leader == null) {
+            leaders.increment();
+            final CompletableFuture<O> future;
+            try {
+                future = starter.get();
+            } catch (RuntimeException e) {
+                inFlight.remove(key, context);
+                throw e;
+            }
+            future.whenComplete((output, ex) -> inFlight.remove(key, context));
+            return future;
+        }
+        saved.increment();
+        final CompletableFuture<O> future = context.getFuture();
+        leader.getFuture().whenComplete((output, ex) -> {
+            try {
+                final BiConsumer<? super O, ? super O> copier = context.getCoalesceCopier();
+                if (copier == null) {
+                    context.setOutput(leader.getOutput());
+                } else {
+                    copier.accept(leader.getOutput(), context.getOutput());
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            if (ex == null) {
+                future.complete(context.getOutput());
+            } else {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 获取正在进行的运行的数量
+     *
+     * @return 数量
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 获取实际运行的次数
+     *
+     * @return 次数
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * 获取合并到正在进行的运行的次数，即节省的运行次数
+     *
+     * @return 次数
+     */
+    public long getSavedCount() {
+        return saved.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlight [inFlight=" + getInFlightCount() + ", leader=" + getLeaderCount() + ", saved=" + getSavedCount() + "]";
+    }
+}
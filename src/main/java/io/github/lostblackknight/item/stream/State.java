@@ -37,5 +37,10 @@ public enum State {
     /**
      * 回滚
      */
-    ROLLBACK
+    ROLLBACK,
+
+    /**
+     * 重试，运行失败后等待重新运行，见 {@link Item#retries()}
+     */
+    RETRY
 }
@@ -0,0 +1,80 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 超时定时器
+ * <p>所有客户端共享一个守护线程，定时任务只做状态决定，打断、发布状态与完成 future 交给线程池，见 {@link #handOff(Executor, Runnable)}；
+ * 取消的定时任务会立即从队列中移除
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 16:05
+ * @version 1.0.0
+ * @see Item#timeoutMillis()
+ * @see ItemStreamClient#runAsync(java.time.Duration)
+ */
+final class Timeouts {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "item-stream-timer-" + SEQUENCE.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private Timeouts() {
+    }
+
+    /**
+     * 在 timeoutMillis 毫秒后运行 command
+     *
+     * @param command       超时后运行的命令
+     * @param timeoutMillis 超时时间
+     * @return 定时任务，正常完成后需要取消
+     */
+    static ScheduledFuture<?> schedule(Runnable command, long timeoutMillis) {
+        return SCHEDULER.schedule(command, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在 delay 后运行 command
+     *
+     * @param command 运行的命令
+     * @param delay   延迟
+     * @param unit    延迟的单位
+     * @return 定时任务，不再需要时需要取消
+     */
+    static ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(command, delay, unit);
+    }
+
+    /**
+     * 把后续动作交给线程池，避免在共享的定时器线程或者依赖完成的线程上运行项目流、通知被依赖的任务或者重新加载缓存
+     * <p>没有线程池或者线程池拒绝时在当前线程上运行
+     *
+     * @param executor 线程池，可以为空
+     * @param action   后续动作
+     */
+    static void handOff(Executor executor, Runnable action) {
+        if (ObjUtil.isEmpty(executor)) {
+            action.run();
+            return;
+        }
+        try {
+            executor.execute(action);
+        } catch (RejectedExecutionException e) {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 虚拟线程
+ * <p>JDK 21 以下的实现，不支持虚拟线程。JDK 21 及以上由多版本 jar 中 META-INF/versions/21 下的实现替换
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 14:20
+ * @version 1.0.0
+ * @see GlobalSetup#setVirtualThreads(boolean)
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 获取为每个任务启动一个虚拟线程的线程池
+     *
+     * @return 线程池
+     */
+    static Executor executor() {
+        throw new ItemStreamException("Virtual threads require JDK 21+, current is " + System.getProperty("java.version") + ".");
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.lostblackknight.item.stream;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程
+ * <p>JDK 21 及以上的实现，每个任务启动一个虚拟线程，阻塞 I/O 不再占用平台线程
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 14:20
+ * @version 1.0.0
+ * @see GlobalSetup#setVirtualThreads(boolean)
+ */
+final class VirtualThreads {
+
+    /**
+     * 虚拟线程不需要池化，所有客户端共享一个线程池
+     */
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("item-stream-virtual-", 0).factory());
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 获取为每个任务启动一个虚拟线程的线程池
+     *
+     * @return 线程池
+     */
+    static Executor executor() {
+        return EXECUTOR;
+    }
+}
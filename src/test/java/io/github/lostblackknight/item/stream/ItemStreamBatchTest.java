@@ -0,0 +1,154 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量运行：每个项目流在一个批次中只运行一次，单个通道被打断不影响其他通道
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 15:00
+ * @version 1.0.0
+ */
+public class ItemStreamBatchTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    private static NameModel input(String nameA) {
+        return new NameModel(nameA, null, null, null);
+    }
+
+    private static Throwable rootCause(Throwable ex) {
+        while (ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    @Test
+    public void testLanesIsolated() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .mapperClass(Arrays.asList(LoadMapper.class, DecorateMapper.class))
+                .collectorClass(BatchCollector.class);
+        final List<NameModel> outputs = run.runBatch(Arrays.asList(input("a"), input("bad"), input("c")), NameModel::new);
+        assertEquals(3, outputs.size());
+        // 每个项目流在批次中只运行一次
+        assertEquals(1, LoadMapper.batches.get());
+        assertEquals(1, DecorateMapper.batches.get());
+        assertEquals("a", outputs.get(0).getNameA());
+        assertEquals("a!", outputs.get(0).getNameAC());
+        assertEquals("c!", outputs.get(2).getNameAC());
+        // 被打断的通道不再运行后续的项目流，其他通道正常收集
+        assertNull(outputs.get(1).getNameA());
+        assertNull(outputs.get(1).getNameAC());
+        assertEquals(Arrays.asList("a!", "c!"), Arrays.asList(DecorateMapper.seen.toArray()));
+        assertNull(run.getContext().getLaneInterruptCause(0));
+        // collector 上的原因包装了通道最初被打断的原因
+        assertInstanceOf(IllegalArgumentException.class, rootCause(run.getContext().getLaneInterruptCause(1)));
+        assertNull(run.getContext().getLaneInterruptCause(2));
+        assertEquals(Arrays.asList("a", "c"), Arrays.asList(BatchCollector.collected.toArray()));
+        assertEquals(State.TERMINATED, run.getContext().getCollector().getState());
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        final List<NameModel> outputs = client().newRun()
+                .mapperClass(Collections.singletonList(EmptyMapper.class))
+                .collectorClass(EmptyCollector.class)
+                .runBatch(Collections.emptyList(), NameModel::new);
+        assertTrue(outputs.isEmpty());
+        assertEquals(0, EmptyMapper.calls.get());
+    }
+
+    @Item
+    public static class LoadMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            if ("bad".equals(input.getNameA())) {
+                throw new IllegalArgumentException("bad lane");
+            }
+            output.setNameA(input.getNameA());
+        }
+
+        @Override
+        public void mapBatch(List<NameModel> inputs, List<NameModel> outputs, Context<NameModel, NameModel> context, Exception[] errors) throws Exception {
+            batches.incrementAndGet();
+            super.mapBatch(inputs, outputs, context, errors);
+        }
+    }
+
+    @Item(dependsOn = LoadMapper.class)
+    public static class DecorateMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger batches = new AtomicInteger();
+
+        private static final Queue<String> seen = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(output.getNameA() + "!");
+            seen.offer(output.getNameAC());
+        }
+
+        @Override
+        public void mapBatch(List<NameModel> inputs, List<NameModel> outputs, Context<NameModel, NameModel> context, Exception[] errors) throws Exception {
+            batches.incrementAndGet();
+            super.mapBatch(inputs, outputs, context, errors);
+        }
+    }
+
+    @Item(dependsOn = DecorateMapper.class)
+    public static class BatchCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        private static final Queue<String> collected = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+            collected.offer(output.getNameA());
+        }
+    }
+
+    @Item
+    public static class EmptyMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+        }
+    }
+
+    @Item(dependsOn = EmptyMapper.class)
+    public static class EmptyCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
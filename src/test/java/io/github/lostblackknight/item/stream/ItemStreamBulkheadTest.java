@@ -0,0 +1,127 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.mapper.DMapper;
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 隔离舱：同一个项目流在所有运行中同时运行的数量不超过 {@link Item#maxConcurrency()}，直接运行时同样受限
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 13:30
+ * @version 1.0.0
+ */
+public class ItemStreamBulkheadTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLimitNeverExceeded() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(DMapper.class, SlowCappedMapper.class), SlowCappedCollector.class);
+        final List<CompletableFuture<NameModel>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(client.newRun().output(new NameModel()).plan(plan).start());
+        }
+        for (CompletableFuture<NameModel> future : futures) {
+            assertEquals("capped", future.get(10, TimeUnit.SECONDS).getNameAC());
+        }
+        assertTrue(SlowCappedMapper.max.get() <= 2, "max concurrency " + SlowCappedMapper.max.get());
+        final Bulkhead bulkhead = globalSetup.getBulkheads().get(SlowCappedMapper.class);
+        assertEquals(0, bulkhead.getActiveCount());
+        assertEquals(0, bulkhead.getQueuedCount());
+        // 没有限制并发数的项目流不经过隔离舱
+        assertFalse(globalSetup.getBulkheads().containsKey(DMapper.class));
+        assertNull(plan.getNode(DMapper.class).getBulkhead());
+    }
+
+    @Test
+    public void testInlineRunsHoldPermits() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(DMapper.class, FastCappedMapper.class), FastCappedCollector.class);
+        final List<CompletableFuture<NameModel>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(client.newRun().output(new NameModel()).plan(plan).start());
+        }
+        for (CompletableFuture<NameModel> future : futures) {
+            assertEquals("D", future.get(10, TimeUnit.SECONDS).getNameD());
+        }
+        assertTrue(plan.getNode(FastCappedMapper.class).isInlineable());
+        assertEquals(1, FastCappedMapper.max.get());
+        assertEquals(0, globalSetup.getBulkheads().get(FastCappedMapper.class).getActiveCount());
+    }
+
+    private static void enter(AtomicInteger current, AtomicInteger max) {
+        final int running = current.incrementAndGet();
+        max.accumulateAndGet(running, Math::max);
+    }
+
+    @Item(dependsOn = DMapper.class, maxConcurrency = 2)
+    public static class SlowCappedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger current = new AtomicInteger();
+
+        private static final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            enter(current, max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+                output.setNameAC("capped");
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+    }
+
+    @Item(dependsOn = SlowCappedMapper.class)
+    public static class SlowCappedCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = DMapper.class, maxConcurrency = 1)
+    public static class FastCappedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger current = new AtomicInteger();
+
+        private static final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            enter(current, max);
+            current.decrementAndGet();
+        }
+    }
+
+    @Item(dependsOn = FastCappedMapper.class)
+    public static class FastCappedCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 结果缓存：命中时不再加载，使用旧值时用另外获取的实例在后台重新加载
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 12:30
+ * @version 1.0.0
+ */
+public class ItemStreamCacheTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    private static NameModel input(String nameA) {
+        return new NameModel(nameA, null, null, null);
+    }
+
+    @Test
+    public void testHitSkipsLoad() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(CountingCacheMapper.class), CountingCacheCollector.class);
+        final NameModel first = client.newRun().input(input("k")).output(new NameModel()).plan(plan).run();
+        final NameModel second = client.newRun().input(input("k")).output(new NameModel()).plan(plan).run();
+        assertEquals("k-1", first.getNameAC());
+        assertEquals("k-1", second.getNameAC());
+        assertEquals(1, CountingCacheMapper.loads.get());
+        final ItemStreamCache cache = plan.getNode(CountingCacheMapper.class).getCache();
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testStaleRefreshUsesOwnInstance() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(StaleCacheMapper.class), StaleCacheCollector.class);
+        client.newRun().input(input("k")).output(new NameModel()).plan(plan).run();
+        TimeUnit.MILLISECONDS.sleep(StaleCacheMapper.TTL_MILLIS * 2);
+        // 使用旧值，后台重新加载
+        final NameModel stale = client.newRun().input(input("k")).output(new NameModel()).plan(plan).run();
+        assertEquals("k-1", stale.getNameAC());
+        // 重新加载期间其他运行从对象池获取实例并加载，不会与重新加载共用实例
+        final CompletableFuture<NameModel> other = client.newRun().input(input("other")).output(new NameModel()).plan(plan).start();
+        assertTrue(other.get(5, TimeUnit.SECONDS).getNameAC().startsWith("other-"));
+        TimeUnit.MILLISECONDS.sleep(StaleCacheMapper.LOAD_MILLIS * 2);
+        assertEquals(3, StaleCacheMapper.loads.get());
+        assertEquals(0, StaleCacheMapper.overlaps.get());
+        final ItemStreamCache cache = plan.getNode(StaleCacheMapper.class).getCache();
+        assertEquals(1, cache.getStaleHitCount());
+        // 重新加载后为新值
+        final NameModel refreshed = client.newRun().input(input("k")).output(new NameModel()).plan(plan).run();
+        assertNotEquals("k-1", refreshed.getNameAC());
+    }
+
+    @Item(cacheSize = 16)
+    public static class CountingCacheMapper extends CacheableItemStreamMapper<NameModel, NameModel, String, String> {
+
+        private static final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public String key(NameModel input, Context<NameModel, NameModel> context) {
+            return input.getNameA();
+        }
+
+        @Override
+        public String load(String key, NameModel input, Context<NameModel, NameModel> context) {
+            return key + "-" + loads.incrementAndGet();
+        }
+
+        @Override
+        public void apply(String value, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(value);
+        }
+    }
+
+    @Item(dependsOn = CountingCacheMapper.class)
+    public static class CountingCacheCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(cacheSize = 16, cacheTtlMillis = 50, cacheStaleMillis = 10000, scope = Scope.POOLED, poolSize = 4)
+    public static class StaleCacheMapper extends CacheableItemStreamMapper<NameModel, NameModel, String, String> {
+
+        private static final long TTL_MILLIS = 50;
+
+        private static final long LOAD_MILLIS = 200;
+
+        private static final AtomicInteger loads = new AtomicInteger();
+
+        private static final AtomicInteger overlaps = new AtomicInteger();
+
+        private final AtomicBoolean loading = new AtomicBoolean();
+
+        @Override
+        public String key(NameModel input, Context<NameModel, NameModel> context) {
+            return input.getNameA();
+        }
+
+        @Override
+        public String load(String key, NameModel input, Context<NameModel, NameModel> context) throws Exception {
+            if (!loading.compareAndSet(false, true)) {
+                overlaps.incrementAndGet();
+            }
+            try {
+                final int load = loads.incrementAndGet();
+                if (load > 1) {
+                    TimeUnit.MILLISECONDS.sleep(LOAD_MILLIS);
+                }
+                return key + "-" + load;
+            } finally {
+                loading.set(false);
+            }
+        }
+
+        @Override
+        public void apply(String value, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(value);
+        }
+    }
+
+    @Item(dependsOn = StaleCacheMapper.class)
+    public static class StaleCacheCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package io.github.lostblackknight.item.stream;
 
 import cn.hutool.core.util.RandomUtil;
+import io.github.lostblackknight.item.stream.mapper.AMapper;
+import io.github.lostblackknight.item.stream.mapper.BMapper;
+import io.github.lostblackknight.item.stream.mapper.CMapper;
+import io.github.lostblackknight.item.stream.mapper.DMapper;
 import io.github.lostblackknight.item.stream.mapper.DefaultCollector;
 import io.github.lostblackknight.item.stream.model.NameModel;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.parallel.Execution;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.parallel.ExecutionMode.CONCURRENT;
 
 /**
@@ -47,4 +58,34 @@ public class ItemStreamClientTest {
             executorClient.clear();
         }
     }
+
+    @RepeatedTest(1)
+    public void testRunHandles() {
+        final List<ItemStreamRun<NameModel, NameModel>> runs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final ItemStreamRun<NameModel, NameModel> run = executorClient
+                    .newRun()
+                    .input(new NameModel(RandomUtil.randomString(3), RandomUtil.randomString(3), RandomUtil.randomString(3), null))
+                    .output(NameModel::new)
+                    .mapperClass("io.github.lostblackknight.item.stream.mapper")
+                    .collectorClass(DefaultCollector.class);
+            run.start();
+            runs.add(run);
+        }
+        for (ItemStreamRun<NameModel, NameModel> run : runs) {
+            run.getContext().getFuture().handle((output, ex) -> output).join();
+            assertNotNull(run.getContext().getCollector().getState());
+        }
+        assertEquals(runs.size(), runs.stream().map(run -> run.getContext().getOutput()).distinct().count());
+        assertNull(executorClient.getContext());
+    }
+
+    @RepeatedTest(1)
+    public void testPlanCacheKeyCopied() {
+        final List<Class<?>> mapperClasses = new ArrayList<>(Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class));
+        final ItemStreamPlan plan = executorClient.compile(mapperClasses, DefaultCollector.class);
+        // 编译后修改调用方的列表不影响已缓存的执行计划
+        mapperClasses.clear();
+        assertSame(plan, executorClient.compile(Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class), DefaultCollector.class));
+    }
 }
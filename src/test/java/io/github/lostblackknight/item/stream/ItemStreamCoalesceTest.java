@@ -0,0 +1,157 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合并运行：相同键的并发运行只运行一次 mapper，后来的运行共享或复制正在进行的运行的输出
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 16:30
+ * @version 1.0.0
+ */
+public class ItemStreamCoalesceTest {
+
+    private static final int RUNS = 5;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    @Test
+    public void testSameKeyRunsMapperOnce() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(SlowLoadMapper.class), CoalesceCollector.class);
+        final List<CompletableFuture<NameModel>> futures = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            futures.add(client.newRun().output(new NameModel()).plan(plan).coalesce("k").start());
+        }
+        final NameModel first = futures.get(0).get(5, TimeUnit.SECONDS);
+        assertEquals("loaded-1", first.getNameA());
+        for (CompletableFuture<NameModel> future : futures) {
+            // 未指定复制方式时共享正在进行的运行的输出
+            assertSame(first, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, SlowLoadMapper.loads.get());
+        assertEquals(1, plan.getSingleFlight().getLeaderCount());
+        assertEquals(RUNS - 1, plan.getSingleFlight().getSavedCount());
+    }
+
+    @Test
+    public void testCopierFillsOwnOutput() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(CopiedMapper.class), CopiedCollector.class);
+        final List<NameModel> outputs = new ArrayList<>();
+        final List<CompletableFuture<NameModel>> futures = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            final NameModel output = new NameModel();
+            outputs.add(output);
+            futures.add(client.newRun().output(output).plan(plan)
+                    .coalesce("k", (leader, own) -> own.setNameA(leader.getNameA()))
+                    .start());
+        }
+        for (int i = 0; i < RUNS; i++) {
+            assertSame(outputs.get(i), futures.get(i).get(5, TimeUnit.SECONDS));
+            assertEquals("copied", outputs.get(i).getNameA());
+        }
+        assertEquals(1, CopiedMapper.loads.get());
+    }
+
+    @Test
+    public void testFollowersFailWithLeader() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(FailingLoadMapper.class), FailingCollector.class);
+        final List<CompletableFuture<NameModel>> futures = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            futures.add(client.newRun().output(new NameModel()).plan(plan).coalesce("k").start());
+        }
+        for (CompletableFuture<NameModel> future : futures) {
+            assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, FailingLoadMapper.loads.get());
+    }
+
+    @Item
+    public static class SlowLoadMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            final int load = loads.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(300);
+            output.setNameA("loaded-" + load);
+        }
+    }
+
+    @Item(dependsOn = SlowLoadMapper.class)
+    public static class CoalesceCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class CopiedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            loads.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(300);
+            output.setNameA("copied");
+        }
+    }
+
+    @Item(dependsOn = CopiedMapper.class)
+    public static class CopiedCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class FailingLoadMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            loads.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(300);
+            throw new IllegalStateException("load failed");
+        }
+    }
+
+    @Item(dependsOn = FailingLoadMapper.class)
+    public static class FailingCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 接着运行：依赖完成后，耗时短的被依赖任务由完成依赖的线程直接运行，不再提交到线程池
+ * <p>线程池为每个任务创建一个新的线程，提交到线程池的任务总是运行在另一个线程上。
+ * source 记录运行的线程到 nameA，被依赖的 mapper 记录到 nameC
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 22:30
+ * @version 1.0.0
+ */
+public class ItemStreamContinuationTest {
+
+    private static final long INLINE_THRESHOLD_MILLIS = 20;
+
+    private static Executor threadPerTask(String prefix) {
+        final AtomicInteger sequence = new AtomicInteger();
+        return command -> new Thread(command, prefix + "-" + sequence.incrementAndGet()).start();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(threadPerTask("default"));
+        globalSetup.registerExecutor("other", threadPerTask("other"));
+        // 放宽阈值，并行运行的测试较多时耗时短的项目流也不会超过阈值
+        globalSetup.setInlineThresholdMicros(TimeUnit.MILLISECONDS.toMicros(INLINE_THRESHOLD_MILLIS));
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    /**
+     * 运行两次，第一次运行后被依赖的 mapper 才有历史耗时
+     */
+    private static NameModel runTwice(Class<? extends ItemStreamMapper<NameModel, NameModel>> mapperClass,
+                                      Class<? extends ItemStreamCollector<NameModel, NameModel>> collectorClass) throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Arrays.asList(SourceMapper.class, mapperClass), collectorClass);
+        final NameModel first = client.newRun().output(new NameModel()).plan(plan).start().get(5, TimeUnit.SECONDS);
+        // 耗时未知的项目流总是提交到线程池
+        assertNotEquals(first.getNameA(), first.getNameC());
+        return client.newRun().output(new NameModel()).plan(plan).start().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFastSuccessorContinues() throws Exception {
+        final NameModel output = runTwice(FastMapper.class, FastCollector.class);
+        assertTrue(output.getNameA().startsWith("default-"));
+        assertEquals(output.getNameA(), output.getNameC());
+    }
+
+    @Test
+    public void testInlineDisabled() throws Exception {
+        final NameModel output = runTwice(NotInlineMapper.class, NotInlineCollector.class);
+        assertTrue(output.getNameC().startsWith("default-"));
+        assertNotEquals(output.getNameA(), output.getNameC());
+    }
+
+    @Test
+    public void testSlowSuccessorSubmitted() throws Exception {
+        final NameModel output = runTwice(SlowMapper.class, SlowCollector.class);
+        assertTrue(output.getNameC().startsWith("default-"));
+        assertNotEquals(output.getNameA(), output.getNameC());
+    }
+
+    @Test
+    public void testOtherExecutorSubmitted() throws Exception {
+        final NameModel output = runTwice(OtherExecutorMapper.class, OtherExecutorCollector.class);
+        assertTrue(output.getNameA().startsWith("default-"));
+        assertTrue(output.getNameC().startsWith("other-"));
+    }
+
+    @Item
+    public static class SourceMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameA(Thread.currentThread().getName());
+        }
+    }
+
+    @Item(dependsOn = SourceMapper.class)
+    public static class FastMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            output.setNameC(Thread.currentThread().getName());
+        }
+    }
+
+    @Item(dependsOn = FastMapper.class)
+    public static class FastCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = SourceMapper.class, inline = "false")
+    public static class NotInlineMapper extends FastMapper {
+    }
+
+    @Item(dependsOn = NotInlineMapper.class)
+    public static class NotInlineCollector extends FastCollector {
+    }
+
+    @Item(dependsOn = SourceMapper.class)
+    public static class SlowMapper extends FastMapper {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            super.map(input, output, context);
+            TimeUnit.MILLISECONDS.sleep(INLINE_THRESHOLD_MILLIS * 5);
+        }
+    }
+
+    @Item(dependsOn = SlowMapper.class)
+    public static class SlowCollector extends FastCollector {
+    }
+
+    @Item(dependsOn = SourceMapper.class, executor = "other")
+    public static class OtherExecutorMapper extends FastMapper {
+    }
+
+    @Item(dependsOn = OtherExecutorMapper.class)
+    public static class OtherExecutorCollector extends FastCollector {
+    }
+}
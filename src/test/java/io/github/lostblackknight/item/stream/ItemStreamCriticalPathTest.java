@@ -0,0 +1,95 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关键路径：collector 沿决定其状态的依赖回溯到最慢的分支，其他分支的松弛时间为与最慢分支的差
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 16:00
+ * @version 1.0.0
+ */
+public class ItemStreamCriticalPathTest {
+
+    private static final long SLOW_MILLIS = 200;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowBranchIsCritical() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamRun<NameModel, NameModel> run = ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .output(new NameModel())
+                .mapperClass(Arrays.asList(SlowMapper.class, FastMapper.class))
+                .collectorClass(PathCollector.class);
+        run.run();
+        final CriticalPath path = run.getContext().getCriticalPath();
+        assertNotNull(path);
+        assertEquals(Arrays.asList("SlowMapper", "PathCollector"),
+                path.getPath().stream().map(task -> task.getItemStream().getClass().getSimpleName()).collect(Collectors.toList()));
+        assertTrue(path.isCritical(SlowMapper.class));
+        assertTrue(path.isCritical(PathCollector.class));
+        assertFalse(path.isCritical(FastMapper.class));
+        assertEquals(0, path.getSlackNanos(SlowMapper.class));
+        assertEquals(0, path.getSlackNanos(PathCollector.class));
+        // 较快的分支可以推迟接近较慢分支的耗时而不推迟 collector
+        assertTrue(path.getSlackNanos(FastMapper.class) >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS / 2));
+        assertTrue(path.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+    }
+
+    @Test
+    public void testNoPathBeforeCollectorFinishes() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamRun<NameModel, NameModel> run = ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .output(new NameModel())
+                .mapperClass(Arrays.asList(SlowMapper.class, FastMapper.class))
+                .collectorClass(PathCollector.class);
+        run.start();
+        assertNull(run.getContext().getCriticalPath());
+        run.getContext().getFuture().get(5, TimeUnit.SECONDS);
+        assertNotNull(run.getContext().getCriticalPath());
+    }
+
+    @Item
+    public static class SlowMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(SLOW_MILLIS);
+            output.setNameA("slow");
+        }
+    }
+
+    @Item
+    public static class FastMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameD("fast");
+        }
+    }
+
+    @Item(dependsOn = {SlowMapper.class, FastMapper.class})
+    public static class PathCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
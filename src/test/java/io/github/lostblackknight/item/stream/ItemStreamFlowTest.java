@@ -0,0 +1,93 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.mapper.DefaultCollector;
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 同一个流程分别使用反射与 {@link ItemStreamFlowProcessor} 生成的定义运行，结果必须一致
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/18 21:40
+ * @version 1.0.0
+ */
+public class ItemStreamFlowTest {
+
+    private static final String PACKAGE_NAME = "io.github.lostblackknight.item.stream.mapper";
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(10);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGeneratedPlanMatchesReflection() {
+        final ItemStreamPlan reflective = compile(false);
+        final ItemStreamPlan generated = compile(true);
+        assertTrue(reflective.getNodes().stream().noneMatch(ItemStreamPlan.Node::isGenerated));
+        assertTrue(generated.getNodes().stream().allMatch(ItemStreamPlan.Node::isGenerated));
+        assertEquals(reflective.getNodes().size(), generated.getNodes().size());
+        for (int i = 0; i < reflective.getNodes().size(); i++) {
+            final ItemStreamPlan.Node expected = reflective.getNodes().get(i);
+            final ItemStreamPlan.Node actual = generated.getNodes().get(i);
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getDependsOn(), actual.getDependsOn());
+            assertEquals(expected.getRunnableMode(), actual.getRunnableMode());
+            assertEquals(expected.getInterruptedMode(), actual.getInterruptedMode());
+            assertEquals(expected.isTx(), actual.isTx());
+            assertEquals(expected.isCollector(), actual.isCollector());
+        }
+    }
+
+    @Test
+    public void testGeneratedRunMatchesReflection() throws InterruptedException {
+        final Map<Class<?>, State> reflective = new LinkedHashMap<>();
+        final NameModel reflectiveOutput = run(false, reflective);
+        final Map<Class<?>, State> generated = new LinkedHashMap<>();
+        final NameModel generatedOutput = run(true, generated);
+        assertEquals(reflective, generated);
+        assertEquals(reflectiveOutput.getNameA() == null, generatedOutput.getNameA() == null);
+        assertEquals(reflectiveOutput.getNameC() == null, generatedOutput.getNameC() == null);
+        assertEquals(reflectiveOutput.getNameD(), generatedOutput.getNameD());
+        assertEquals(reflectiveOutput.getNameAC(), generatedOutput.getNameAC());
+    }
+
+    private ItemStreamPlan compile(boolean generatedDefinitions) {
+        return ItemStreamClient.<NameModel, NameModel>create(globalSetup(generatedDefinitions)).compile(PACKAGE_NAME, DefaultCollector.class);
+    }
+
+    private NameModel run(boolean generatedDefinitions, Map<Class<?>, State> states) throws InterruptedException {
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup(generatedDefinitions));
+        try {
+            final NameModel output = client
+                    .init()
+                    .input(new NameModel("a", "c", null, null))
+                    .output(NameModel::new)
+                    .mapperClass(PACKAGE_NAME)
+                    .collectorClass(DefaultCollector.class)
+                    .run();
+            for (ItemStreamTask task : client.getContext().getTasks()) {
+                states.put(task.getNode().getType(), task.getState());
+            }
+            return output;
+        } finally {
+            client.clear();
+        }
+    }
+
+    private GlobalSetup globalSetup(boolean generatedDefinitions) {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setGeneratedDefinitions(generatedDefinitions);
+        return globalSetup;
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对冲：主运行慢时对冲胜出，被依赖的 collector 仍然到达终态
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 10:20
+ * @version 1.0.0
+ */
+public class ItemStreamHedgeTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testHedgeWinsAndCollectorFinishes() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setMetrics(true);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(SlowFirstMapper.class), HedgeCollector.class);
+        // 多次运行，collector 的历史耗时足够短后会尝试在完成依赖的线程上直接运行
+        for (int i = 0; i < 20; i++) {
+            final ItemStreamRun<NameModel, NameModel> run = client.newRun().output(new NameModel()).plan(plan);
+            final NameModel output = run.start().get(5, TimeUnit.SECONDS);
+            assertEquals("hedge", output.getNameA());
+            assertEquals("hedge-collected", output.getNameAC());
+            assertEquals(State.TERMINATED, run.getContext().getCollector().getState());
+        }
+        final NodeMetrics metrics = plan.getMetrics().getNode(SlowFirstMapper.class);
+        assertEquals(20, metrics.getHedgeCount());
+    }
+
+    @Test
+    public void testHedgeNotStartedWhenPrimaryIsFast() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final NameModel output = client.newRun()
+                .output(new NameModel())
+                .mapperClass(Arrays.asList(FastMapper.class))
+                .collectorClass(FastCollector.class)
+                .run(Duration.ofSeconds(5));
+        assertEquals("fast", output.getNameA());
+        assertEquals(1, FastMapper.calls.get());
+    }
+
+    @Item(hedgeAfterMillis = 50)
+    public static class SlowFirstMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            if (attempts.getAndIncrement() == 0) {
+                TimeUnit.SECONDS.sleep(10);
+                output.setNameA("primary");
+            } else {
+                output.setNameA("hedge");
+            }
+        }
+    }
+
+    @Item(dependsOn = SlowFirstMapper.class)
+    public static class HedgeCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(output.getNameA() + "-collected");
+        }
+    }
+
+    @Item(hedgeAfterMillis = 1000)
+    public static class FastMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+            output.setNameA("fast");
+        }
+    }
+
+    @Item(dependsOn = FastMapper.class)
+    public static class FastCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
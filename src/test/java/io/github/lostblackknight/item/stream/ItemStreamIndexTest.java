@@ -0,0 +1,105 @@
+package io.github.lostblackknight.item.stream;
+
+import cn.hutool.core.util.ObjUtil;
+import com.google.common.eventbus.EventBus;
+import io.github.lostblackknight.item.stream.mapper.AMapper;
+import io.github.lostblackknight.item.stream.mapper.BMapper;
+import io.github.lostblackknight.item.stream.mapper.CMapper;
+import io.github.lostblackknight.item.stream.mapper.DMapper;
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * mapper 索引：索引完整时直接使用，类路径上有未索引的位置时扫描类路径
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 13:00
+ * @version 1.0.0
+ */
+public class ItemStreamIndexTest {
+
+    private static final String PARTIAL = "io.github.lostblackknight.item.stream.partial";
+
+    @Test
+    public void testCompletePackageUsesIndex() {
+        final ItemStreamIndex index = ItemStreamIndex.get(getClass().getClassLoader());
+        assertTrue(index.isComplete("io.github.lostblackknight.item.stream.mapper"));
+        assertEquals(new HashSet<>(Arrays.asList(AMapper.class, BMapper.class, CMapper.class, DMapper.class)),
+                new HashSet<>(index.getMapperClasses("io.github.lostblackknight.item.stream.mapper")));
+        // 主代码编译时没有生成索引
+        assertFalse(index.isComplete("io.github.lostblackknight.item.stream"));
+    }
+
+    @Test
+    public void testPartlyIndexedPackageFallsBackToScan(@TempDir Path dir) throws Exception {
+        final Path indexed = dir.resolve("indexed");
+        final Path plain = dir.resolve("plain");
+        compile(indexed, "IndexedMapper");
+        compile(plain, "PlainMapper");
+        // 只有一个位置有索引，另一个位置的 mapper 没有被索引
+        final Path location = indexed.resolve(ItemStreamIndex.LOCATION);
+        Files.createDirectories(location.getParent());
+        Files.write(location, Arrays.asList(
+                PARTIAL + "=" + ItemStreamIndex.PACKAGE,
+                PARTIAL + ".IndexedMapper=" + ItemStreamIndex.MAPPER), StandardCharsets.ISO_8859_1);
+
+        assertEquals(Collections.singletonList(PARTIAL + ".IndexedMapper"), scan(indexed));
+        assertEquals(Arrays.asList(PARTIAL + ".IndexedMapper", PARTIAL + ".PlainMapper"), scan(indexed, plain));
+        assertEquals(Collections.singletonList(PARTIAL + ".PlainMapper"), scan(plain));
+    }
+
+    private static List<String> scan(Path... roots) throws Exception {
+        final URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toUri().toURL();
+        }
+        final Thread thread = Thread.currentThread();
+        final ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(urls, ItemStreamIndexTest.class.getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(new GlobalSetup());
+            return client.scan(PARTIAL).stream().map(Class::getName).sorted().collect(Collectors.toList());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    private static void compile(Path root, String name) throws Exception {
+        final Path source = root.resolve("src").resolve(name + ".java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, Arrays.asList(
+                "package " + PARTIAL + ";",
+                "public class " + name + " extends io.github.lostblackknight.item.stream.ItemStreamMapper<Object, Object> {",
+                "    public void map(Object input, Object output, io.github.lostblackknight.item.stream.Context<Object, Object> context) {",
+                "    }",
+                "}"), StandardCharsets.UTF_8);
+        final String classPath = Arrays.asList(ItemStreamMapper.class, ObjUtil.class, EventBus.class, Logger.class).stream()
+                .map(type -> {
+                    try {
+                        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final int result = compiler.run(null, null, null,
+                "-proc:none", "-classpath", classPath, "-d", root.toString(), source.toString());
+        assertEquals(0, result);
+        Files.delete(source);
+    }
+}
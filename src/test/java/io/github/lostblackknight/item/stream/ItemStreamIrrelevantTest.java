@@ -0,0 +1,132 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.parallel.ExecutionMode.SAME_THREAD;
+
+/**
+ * 取消不再影响 collector 的项目流：collector 已决定状态后，正在运行的依赖被打断，尚未就绪的依赖不再调度
+ * <p>测试共用 mapper 的静态闩锁与计数，依次运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 17:00
+ * @version 1.0.0
+ */
+@Execution(SAME_THREAD)
+public class ItemStreamIrrelevantTest {
+
+    private static final long SLOW_MILLIS = 1000;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamRun<NameModel, NameModel> newRun(boolean cancelIrrelevant) {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setCancelIrrelevant(cancelIrrelevant);
+        return ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .output(new NameModel())
+                .mapperClass(Arrays.asList(FastMapper.class, SlowMapper.class, AfterSlowMapper.class))
+                .collectorClass(AnyCollector.class);
+    }
+
+    @Test
+    public void testIrrelevantCancelled() throws Exception {
+        SlowMapper.reset();
+        AfterSlowMapper.calls.set(0);
+        final ItemStreamRun<NameModel, NameModel> run = newRun(true);
+        assertEquals("fast", run.run().getNameA());
+        // 正在运行的 mapper 被打断，不必等到运行结束
+        assertTrue(SlowMapper.interrupted.await(SLOW_MILLIS, TimeUnit.MILLISECONDS));
+        final ItemStreamTask slow = run.getContext().getTask(SlowMapper.class);
+        final ItemStreamTask afterSlow = run.getContext().getTask(AfterSlowMapper.class);
+        run.getContext().getFuture().join();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(State.INTERRUPTED, slow.getState());
+        assertInstanceOf(CancellationException.class, slow.getInterruptCause().peekLast());
+        // 尚未就绪的 mapper 不再调度
+        assertEquals(State.INTERRUPTED, afterSlow.getState());
+        assertInstanceOf(CancellationException.class, afterSlow.getInterruptCause().peekLast());
+        assertEquals(0, AfterSlowMapper.calls.get());
+    }
+
+    @Test
+    public void testNotCancelledWhenDisabled() throws Exception {
+        SlowMapper.reset();
+        final ItemStreamRun<NameModel, NameModel> run = newRun(false);
+        assertEquals("fast", run.run().getNameA());
+        assertFalse(SlowMapper.interrupted.await(SLOW_MILLIS + 500, TimeUnit.MILLISECONDS));
+        final ItemStreamTask slow = run.getContext().getTask(SlowMapper.class);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(State.TERMINATED, slow.getState());
+    }
+
+    @Item
+    public static class FastMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            // 等较慢的 mapper 开始运行后再结束，使其在 collector 决定状态时正在运行
+            SlowMapper.started.await(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+            output.setNameA("fast");
+        }
+    }
+
+    @Item
+    public static class SlowMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static volatile CountDownLatch started = new CountDownLatch(1);
+
+        private static volatile CountDownLatch interrupted = new CountDownLatch(1);
+
+        private static void reset() {
+            started = new CountDownLatch(1);
+            interrupted = new CountDownLatch(1);
+        }
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            started.countDown();
+            try {
+                TimeUnit.MILLISECONDS.sleep(SLOW_MILLIS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }
+    }
+
+    @Item(dependsOn = SlowMapper.class)
+    public static class AfterSlowMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+        }
+    }
+
+    @Item(dependsOn = {FastMapper.class, AfterSlowMapper.class}, runnableMode = RunnableMode.ANY)
+    public static class AnyCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.mapper.DMapper;
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标：默认不记录，开启后按项目流与线程池累计次数和耗时分布
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 14:00
+ * @version 1.0.0
+ */
+public class ItemStreamMetricsTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMetricsOffByDefault() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(DMapper.class), MetricsCollector.class);
+        assertEquals("D", client.newRun().output(new NameModel()).plan(plan).run().getNameD());
+        assertNull(plan.getMetrics());
+        assertNull(plan.getNode(DMapper.class).getMetrics());
+        assertNull(plan.getNode(DMapper.class).getExecutorMetrics());
+        assertTrue(globalSetup.getExecutorMetrics().isEmpty());
+    }
+
+    @Test
+    public void testMetricsRecorded() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setMetrics(true);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(SlowMetricsMapper.class), SlowMetricsCollector.class);
+        for (int i = 0; i < 10; i++) {
+            client.newRun().output(new NameModel()).plan(plan).run();
+        }
+        final ItemStreamMetrics metrics = plan.getMetrics();
+        final NodeMetrics mapper = metrics.getNode(SlowMetricsMapper.class);
+        assertEquals(10, mapper.getTerminatedCount());
+        assertEquals(0, mapper.getInterruptedCount());
+        final LatencyHistogram.Snapshot execution = mapper.getExecution().snapshot();
+        assertEquals(10, execution.getCount());
+        assertTrue(execution.getP50() >= TimeUnit.MILLISECONDS.toNanos(SlowMetricsMapper.SLEEP_MILLIS));
+        assertEquals(10, mapper.getQueueWait().snapshot().getCount());
+        // 每次运行 mapper 与 collector 都在关键路径上
+        assertEquals(10, mapper.getCriticalCount());
+        assertEquals(10, metrics.getNode(SlowMetricsCollector.class).getTerminatedCount());
+        final LatencyHistogram.Snapshot runLatency = metrics.getRunLatency().snapshot();
+        assertEquals(10, runLatency.getCount());
+        assertTrue(runLatency.getMax() >= execution.getP50());
+        // 运行结束后线程池中不再有排队或运行中的项目流
+        final ExecutorMetrics executorMetrics = plan.getNode(SlowMetricsMapper.class).getExecutorMetrics();
+        assertNotNull(executorMetrics);
+        assertSame(executorMetrics, globalSetup.getExecutorMetrics().get(executorMetrics.getName()));
+        // collector 完成 future 后才离开线程池中的执行单元
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (executorMetrics.getActiveCount() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertEquals(0, executorMetrics.getQueuedCount());
+        assertEquals(0, executorMetrics.getActiveCount());
+    }
+
+    @Test
+    public void testHedgePercentileRequiresMetrics() {
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(new GlobalSetup());
+        assertThrows(ItemStreamException.class,
+                () -> client.compile(Collections.singletonList(PercentileMapper.class), PercentileCollector.class));
+    }
+
+    @Item
+    public static class SlowMetricsMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final long SLEEP_MILLIS = 5;
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(SLEEP_MILLIS);
+            output.setNameA("slow");
+        }
+    }
+
+    @Item(dependsOn = SlowMetricsMapper.class)
+    public static class SlowMetricsCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = DMapper.class)
+    public static class MetricsCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(hedgePercentile = 90)
+    public static class PercentileMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = PercentileMapper.class)
+    public static class PercentileCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
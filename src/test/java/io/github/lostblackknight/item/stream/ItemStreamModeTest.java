@@ -0,0 +1,247 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 依赖计数：RunnableMode 与 InterruptedMode 的每种组合决定的状态与决定时机，与逐个事件重新统计依赖状态的结果相同
+ * <p>依赖按 T1（300ms 完成）、I1（600ms 失败）、T2（900ms 完成）、I2（1200ms 失败）的顺序到达终态，
+ * 决定状态的依赖即为 {@link ItemStreamTask#getTrigger()}，之后到达的依赖不再改变状态
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 21:00
+ * @version 1.0.0
+ */
+public class ItemStreamModeTest {
+
+    /**
+     * 依赖到达终态的间隔，并行运行的测试较多时线程调度的延迟也不会颠倒依赖的顺序
+     */
+    private static final long STEP_MILLIS = 300;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private static ItemStreamRun<NameModel, NameModel> run;
+
+    @BeforeAll
+    public static void runOnce() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        // 与订阅事件的实现相同，已决定状态的任务不取消不再影响它的依赖
+        globalSetup.setCancelIrrelevant(false);
+        final List<Class<?>> mappers = Arrays.asList(
+                T1Mapper.class, I1Mapper.class, T2Mapper.class, I2Mapper.class,
+                AllAllMapper.class, AllAllInterruptedMapper.class, AllAnyMapper.class, AllNoneMapper.class,
+                AllMustMapper.class, AllMustTerminatedMapper.class,
+                AnyAllMapper.class, AnyAnyMapper.class, AnyAnyInterruptedMapper.class, AnyNoneMapper.class, AnyMustMapper.class,
+                MustAllMapper.class, MustAnyMapper.class, MustNoneMapper.class,
+                MustMustMapper.class, MustMustInterruptedMapper.class, MustMustIgnoredMapper.class);
+        run = ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .output(new NameModel())
+                .mapperClass(mappers)
+                .collectorClass(ModeCollector.class);
+        run.start().get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void assertDecided(Class<? extends ItemStream> target, State state, Class<? extends ItemStream> trigger) {
+        final ItemStreamTask task = run.getContext().getTask(target);
+        assertEquals(state, task.getState(), task.getName());
+        assertSame(run.getContext().getTask(trigger), task.getTrigger(), task.getName());
+    }
+
+    @Test
+    public void testRunnableAll() {
+        // 被打断的依赖不计入 ALL 需要完成的依赖
+        assertDecided(AllAllMapper.class, State.TERMINATED, I1Mapper.class);
+        assertDecided(AllAllInterruptedMapper.class, State.INTERRUPTED, I2Mapper.class);
+        assertDecided(AllAnyMapper.class, State.INTERRUPTED, I1Mapper.class);
+        assertDecided(AllNoneMapper.class, State.TERMINATED, I2Mapper.class);
+        // interruptedMust 尚未完成时，其他被打断的依赖既不算打断也不算完成
+        assertDecided(AllMustMapper.class, State.INTERRUPTED, I2Mapper.class);
+        // interruptedMust 全部完成后，其他被打断的依赖算作完成
+        assertDecided(AllMustTerminatedMapper.class, State.TERMINATED, T2Mapper.class);
+    }
+
+    @Test
+    public void testRunnableAny() {
+        assertDecided(AnyAllMapper.class, State.TERMINATED, T2Mapper.class);
+        // 第一个完成的依赖已决定状态，之后被打断的依赖不再影响
+        assertDecided(AnyAnyMapper.class, State.TERMINATED, T1Mapper.class);
+        assertDecided(AnyAnyInterruptedMapper.class, State.INTERRUPTED, I1Mapper.class);
+        assertDecided(AnyNoneMapper.class, State.TERMINATED, I1Mapper.class);
+        assertDecided(AnyMustMapper.class, State.INTERRUPTED, I2Mapper.class);
+    }
+
+    @Test
+    public void testRunnableMust() {
+        // 不在 runnableMust 中的依赖完成不计数；被打断的依赖使需要完成的数量减一，T2 完成之前就已就绪
+        assertDecided(MustAllMapper.class, State.TERMINATED, I1Mapper.class);
+        assertDecided(MustAnyMapper.class, State.INTERRUPTED, I1Mapper.class);
+        // NONE 时被打断的依赖算作完成，即使不在 runnableMust 中
+        assertDecided(MustNoneMapper.class, State.TERMINATED, I1Mapper.class);
+    }
+
+    @Test
+    public void testRunnableMustWithInterruptedMust() {
+        // interruptedMust 的 T1 已完成，被打断的 I1 算作完成，满足 runnableMust 的数量
+        assertDecided(MustMustMapper.class, State.TERMINATED, I1Mapper.class);
+        assertDecided(MustMustInterruptedMapper.class, State.INTERRUPTED, I1Mapper.class);
+        // runnableMust 全部完成即就绪，不等待 interruptedMust
+        assertDecided(MustMustIgnoredMapper.class, State.TERMINATED, T2Mapper.class);
+        final ItemStreamTask task = run.getContext().getTask(MustMustIgnoredMapper.class);
+        assertEquals(State.NEW, task.getDependsOnState(I2Mapper.class));
+    }
+
+    @Item
+    public static class T1Mapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(STEP_MILLIS);
+        }
+    }
+
+    @Item
+    public static class I1Mapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(STEP_MILLIS * 2);
+            throw new IllegalStateException("I1 failed");
+        }
+    }
+
+    @Item
+    public static class T2Mapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(STEP_MILLIS * 3);
+        }
+    }
+
+    @Item
+    public static class I2Mapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(STEP_MILLIS * 4);
+            throw new IllegalStateException("I2 failed");
+        }
+    }
+
+    public abstract static class TargetMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class}, interruptedMode = InterruptedMode.ALL)
+    public static class AllAllMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, I2Mapper.class}, interruptedMode = InterruptedMode.ALL)
+    public static class AllAllInterruptedMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class})
+    public static class AllAnyMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, I2Mapper.class}, interruptedMode = InterruptedMode.NONE)
+    public static class AllNoneMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, I2Mapper.class},
+            interruptedMode = InterruptedMode.MUST, interruptedMust = I2Mapper.class)
+    public static class AllMustMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class},
+            interruptedMode = InterruptedMode.MUST, interruptedMust = T1Mapper.class)
+    public static class AllMustTerminatedMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, T2Mapper.class}, runnableMode = RunnableMode.ANY, interruptedMode = InterruptedMode.ALL)
+    public static class AnyAllMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class}, runnableMode = RunnableMode.ANY)
+    public static class AnyAnyMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, T2Mapper.class}, runnableMode = RunnableMode.ANY)
+    public static class AnyAnyInterruptedMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = I1Mapper.class, runnableMode = RunnableMode.ANY, interruptedMode = InterruptedMode.NONE)
+    public static class AnyNoneMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, I2Mapper.class}, runnableMode = RunnableMode.ANY,
+            interruptedMode = InterruptedMode.MUST, interruptedMust = I2Mapper.class)
+    public static class AnyMustMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = T2Mapper.class, interruptedMode = InterruptedMode.ALL)
+    public static class MustAllMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = T2Mapper.class)
+    public static class MustAnyMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {I1Mapper.class, T2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = T2Mapper.class, interruptedMode = InterruptedMode.NONE)
+    public static class MustNoneMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = T2Mapper.class,
+            interruptedMode = InterruptedMode.MUST, interruptedMust = T1Mapper.class)
+    public static class MustMustMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = {T1Mapper.class, T2Mapper.class},
+            interruptedMode = InterruptedMode.MUST, interruptedMust = I1Mapper.class)
+    public static class MustMustInterruptedMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {T1Mapper.class, I1Mapper.class, T2Mapper.class, I2Mapper.class},
+            runnableMode = RunnableMode.MUST, runnableMust = {T1Mapper.class, T2Mapper.class},
+            interruptedMode = InterruptedMode.MUST, interruptedMust = I2Mapper.class)
+    public static class MustMustIgnoredMapper extends TargetMapper {
+    }
+
+    @Item(dependsOn = {
+            AllAllMapper.class, AllAllInterruptedMapper.class, AllAnyMapper.class, AllNoneMapper.class,
+            AllMustMapper.class, AllMustTerminatedMapper.class,
+            AnyAllMapper.class, AnyAnyMapper.class, AnyAnyInterruptedMapper.class, AnyNoneMapper.class, AnyMustMapper.class,
+            MustAllMapper.class, MustAnyMapper.class, MustNoneMapper.class,
+            MustMustMapper.class, MustMustInterruptedMapper.class, MustMustIgnoredMapper.class},
+            interruptedMode = InterruptedMode.NONE)
+    public static class ModeCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流水线：按输入的顺序输出，运行中的输入不超过上限，消费输出时才读取输入
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 15:30
+ * @version 1.0.0
+ */
+public class ItemStreamPipelineTest {
+
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 每个测试使用自己的 mapper，统计运行中数量的静态计数器不会被并行运行的其他测试修改
+     */
+    private static ItemStreamPipeline<NameModel, NameModel> pipeline(Class<? extends ItemStreamMapper<NameModel, NameModel>> mapperClass,
+                                                                    Class<? extends ItemStreamCollector<NameModel, NameModel>> collectorClass) {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .mapperClass(Collections.singletonList(mapperClass))
+                .collectorClass(collectorClass)
+                .pipeline(NameModel::new)
+                .maxInFlight(MAX_IN_FLIGHT);
+    }
+
+    /**
+     * 序号越小运行越久，先读取的输入后完成
+     */
+    private static List<NameModel> inputs(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new NameModel(String.valueOf(i), String.valueOf((size - i) * 10), null, null))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testOrderedOutputAndBackpressure() {
+        final AtomicInteger read = new AtomicInteger();
+        final Iterator<NameModel> source = inputs(10).iterator();
+        final Iterator<NameModel> inputs = new Iterator<NameModel>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public NameModel next() {
+                read.incrementAndGet();
+                return source.next();
+            }
+        };
+        final Iterator<NameModel> outputs = pipeline(WindowMapper.class, WindowCollector.class).iterator(inputs);
+        assertEquals(0, read.get());
+        final List<String> names = new ArrayList<>();
+        while (outputs.hasNext()) {
+            final NameModel output = outputs.next();
+            names.add(output.getNameA());
+            // 已读取的输入不超过已消费的输出加上窗口大小
+            assertTrue(read.get() <= names.size() + MAX_IN_FLIGHT);
+        }
+        assertEquals(IntStream.range(0, 10).mapToObj(String::valueOf).collect(Collectors.toList()), names);
+        assertTrue(WindowMapper.peak.get() <= MAX_IN_FLIGHT);
+        assertTrue(WindowMapper.peak.get() > 1);
+    }
+
+    @Test
+    public void testUnorderedOutputsAll() {
+        final List<String> names = pipeline(SleepMapper.class, SleepCollector.class).ordered(false).stream(inputs(6).iterator())
+                .map(NameModel::getNameA)
+                .collect(Collectors.toList());
+        assertEquals(6, names.size());
+        assertEquals(IntStream.range(0, 6).mapToObj(String::valueOf).collect(Collectors.toSet()), new HashSet<>(names));
+    }
+
+    @Test
+    public void testStartFailureNotInFlight() {
+        final Iterator<NameModel> outputs = pipeline(SetupFailingMapper.class, SetupFailingCollector.class).iterator(inputs(5).iterator());
+        final List<String> names = new ArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        // 开始失败的输入不留在窗口中，之后的读取不会等待它
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (true) {
+                try {
+                    if (!outputs.hasNext()) {
+                        break;
+                    }
+                    names.add(outputs.next().getNameA());
+                } catch (IllegalStateException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(1, failures.get());
+        assertEquals(Arrays.asList("0", "1", "3", "4"), names);
+    }
+
+    @Test
+    public void testPipelineRequiresCollector() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamRun<NameModel, NameModel> run = ItemStreamClient.<NameModel, NameModel>create(globalSetup).newRun()
+                .mapperClass(Collections.singletonList(SleepMapper.class));
+        assertThrows(ItemStreamException.class, () -> run.pipeline(NameModel::new));
+    }
+
+    @Item
+    public static class SleepMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(Long.parseLong(input.getNameC()));
+            output.setNameA(input.getNameA());
+        }
+    }
+
+    @Item(dependsOn = SleepMapper.class)
+    public static class SleepCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class WindowMapper extends SleepMapper {
+
+        private static final AtomicInteger running = new AtomicInteger();
+
+        private static final AtomicInteger peak = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            final int current = running.incrementAndGet();
+            peak.accumulateAndGet(current, Math::max);
+            try {
+                super.map(input, output, context);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    @Item(dependsOn = WindowMapper.class)
+    public static class WindowCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class SetupFailingMapper extends SleepMapper {
+
+        @Override
+        public void setup(Context<NameModel, NameModel> context) {
+            if ("2".equals(context.getInput().getNameA())) {
+                throw new IllegalStateException("setup failed");
+            }
+        }
+    }
+
+    @Item(dependsOn = SetupFailingMapper.class)
+    public static class SetupFailingCollector extends SleepCollector {
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按优先级调度：线程池繁忙时排队的项目流按向上排名运行，排名按节点整体发布
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 14:30
+ * @version 1.0.0
+ */
+public class ItemStreamPriorityTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testQueuedTasksRunByPriority() throws Exception {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final PriorityExecutor priorityExecutor = new PriorityExecutor(single);
+            final CountDownLatch blocked = new CountDownLatch(1);
+            single.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            final List<Long> order = new CopyOnWriteArrayList<>();
+            final CountDownLatch done = new CountDownLatch(4);
+            for (long priority : new long[]{1, 3, 2, 3}) {
+                priorityExecutor.execute(() -> {
+                    order.add(priority);
+                    done.countDown();
+                }, priority);
+            }
+            blocked.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(3L, 3L, 2L, 1L), order);
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRanksFollowRemainingPath() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setPriorityScheduling(true);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(HeadMapper.class, TailMapper.class, LeafMapper.class), RankCollector.class);
+        final long head = plan.getUpwardRankNanos(plan.getNode(HeadMapper.class));
+        final long tail = plan.getUpwardRankNanos(plan.getNode(TailMapper.class));
+        final long leaf = plan.getUpwardRankNanos(plan.getNode(LeafMapper.class));
+        final long collector = plan.getUpwardRankNanos(plan.getCollector());
+        // 未运行过时按相同的耗时估算，剩余路径越长排名越大
+        assertTrue(head > tail);
+        assertTrue(tail > collector);
+        assertEquals(tail, leaf);
+        for (int i = 0; i < 5; i++) {
+            final NameModel output = client.newRun().output(new NameModel()).plan(plan).start().get(5, TimeUnit.SECONDS);
+            assertEquals("head-tail", output.getNameAC());
+            assertEquals("leaf", output.getNameD());
+        }
+    }
+
+    @Test
+    public void testNoRanksWithoutPriorityScheduling() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(HeadMapper.class, TailMapper.class, LeafMapper.class), RankCollector.class);
+        assertEquals("head-tail", client.newRun().output(new NameModel()).plan(plan).run().getNameAC());
+        plan.getNodes().forEach(node -> assertEquals(0, plan.getUpwardRankNanos(node)));
+    }
+
+    @Item
+    public static class HeadMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameA("head");
+        }
+    }
+
+    @Item(dependsOn = HeadMapper.class)
+    public static class TailMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(output.getNameA() + "-tail");
+        }
+    }
+
+    @Item
+    public static class LeafMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameD("leaf");
+        }
+    }
+
+    @Item(dependsOn = {TailMapper.class, LeafMapper.class})
+    public static class RankCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
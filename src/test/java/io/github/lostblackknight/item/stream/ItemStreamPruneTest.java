@@ -0,0 +1,129 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 裁剪：collector 不依赖的 mapper 不会被编译、实例化与运行，只有副作用的 mapper 及其依赖保留
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 17:30
+ * @version 1.0.0
+ */
+public class ItemStreamPruneTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client(boolean pruneUnreachable) {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        globalSetup.setPruneUnreachable(pruneUnreachable);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    /**
+     * 每个测试使用自己的 collector 不依赖的 mapper，并行运行的测试不会修改彼此的计数
+     */
+    private static List<Class<?>> mappers(Class<?> unused) {
+        return Arrays.asList(UsedMapper.class, unused, AuditSourceMapper.class, AuditMapper.class);
+    }
+
+    @Test
+    public void testPrunedNodeNeverRuns() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client(true);
+        final ItemStreamPlan plan = client.compile(mappers(UnusedMapper.class), PruneCollector.class);
+        assertNull(plan.getNode(UnusedMapper.class));
+        assertNotNull(plan.getNode(UsedMapper.class));
+        // 只有副作用的 mapper 及其依赖不被裁剪
+        assertNotNull(plan.getNode(AuditMapper.class));
+        assertNotNull(plan.getNode(AuditSourceMapper.class));
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun().output(new NameModel()).plan(plan);
+        assertEquals("used", run.run().getNameA());
+        assertNull(run.getContext().getTask(UnusedMapper.class));
+        assertEquals(0, UnusedMapper.created.get());
+        assertEquals(0, UnusedMapper.calls.get());
+    }
+
+    @Test
+    public void testKeptWhenDisabled() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client(false);
+        final ItemStreamPlan plan = client.compile(mappers(KeptMapper.class), PruneCollector.class);
+        assertNotNull(plan.getNode(KeptMapper.class));
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun().output(new NameModel()).plan(plan);
+        run.run();
+        run.getContext().getFuture().join();
+        assertNotNull(run.getContext().getTask(KeptMapper.class));
+    }
+
+    @Item
+    public static class UsedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameA("used");
+        }
+    }
+
+    @Item
+    public static class UnusedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void init() {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+        }
+    }
+
+    @Item
+    public static class KeptMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class AuditSourceMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = AuditSourceMapper.class, sideEffect = true)
+    public static class AuditMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = UsedMapper.class)
+    public static class PruneCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 重试：按配置的次数与异常重试，退避结束后在线程池中重新运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 12:00
+ * @version 1.0.0
+ */
+public class ItemStreamRetryTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    @Test
+    public void testRetryCountHonoured() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(AlwaysFailMapper.class))
+                .collectorClass(AlwaysFailCollector.class);
+        run.run();
+        final ItemStreamTask task = run.getContext().getTask(AlwaysFailMapper.class);
+        assertEquals(3, AlwaysFailMapper.calls.get());
+        assertEquals(2, task.getRetryCount());
+        assertEquals(State.INTERRUPTED, task.getState());
+        assertInstanceOf(IllegalStateException.class, task.getInterruptCause().peekLast());
+    }
+
+    @Test
+    public void testRetrySucceedsAfterBackoffOffTimer() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(FlakyMapper.class))
+                .collectorClass(FlakyCollector.class);
+        final NameModel output = run.run();
+        assertEquals("recovered", output.getNameA());
+        assertEquals(State.TERMINATED, run.getContext().getCollector().getState());
+        assertEquals(2, run.getContext().getTask(FlakyMapper.class).getRetryCount());
+        assertEquals(3, FlakyMapper.threads.size());
+        // 退避结束后的重试不在定时器线程上运行
+        FlakyMapper.threads.forEach(thread -> assertFalse(thread.startsWith("item-stream-timer-")));
+    }
+
+    @Test
+    public void testRetryOnFilter() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(NotRetriedMapper.class))
+                .collectorClass(NotRetriedCollector.class);
+        run.run();
+        assertEquals(1, NotRetriedMapper.calls.get());
+        assertEquals(0, run.getContext().getTask(NotRetriedMapper.class).getRetryCount());
+    }
+
+    @Item(retries = 2)
+    public static class AlwaysFailMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("always");
+        }
+    }
+
+    @Item(dependsOn = AlwaysFailMapper.class)
+    public static class AlwaysFailCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(retries = 3, backoffMillis = 20)
+    public static class FlakyMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final Queue<String> threads = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            threads.offer(Thread.currentThread().getName());
+            if (threads.size() < 3) {
+                throw new IllegalStateException("flaky");
+            }
+            output.setNameA("recovered");
+        }
+    }
+
+    @Item(dependsOn = FlakyMapper.class)
+    public static class FlakyCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(retries = 3, retryOn = IllegalStateException.class)
+    public static class NotRetriedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("not retried");
+        }
+    }
+
+    @Item(dependsOn = NotRetriedMapper.class)
+    public static class NotRetriedCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运行句柄：每次运行持有独立的上下文，可以在任意线程上开始、取消与设置期限
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 18:00
+ * @version 1.0.0
+ */
+public class ItemStreamRunTest {
+
+    private static final int RUNS = 8;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private static final ExecutorService starters = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+        starters.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    private static ItemStreamRun<NameModel, NameModel> echoRun(ItemStreamClient<NameModel, NameModel> client, String name) {
+        return client.newRun()
+                .input(new NameModel(name, null, null, null))
+                .output(NameModel::new)
+                .mapperClass(Collections.singletonList(EchoMapper.class))
+                .collectorClass(EchoCollector.class);
+    }
+
+    @Test
+    public void testHandlesStartedOnOtherThreads() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final List<Future<CompletableFuture<NameModel>>> started = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            final String name = "run-" + i;
+            started.add(starters.submit(() -> echoRun(client, name).start()));
+        }
+        for (int i = 0; i < RUNS; i++) {
+            final NameModel output = started.get(i).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+            // 每次运行只看到自己的输入与输出
+            assertEquals("run-" + i, output.getNameA());
+            assertEquals("run-" + i + "-collected", output.getNameAC());
+        }
+        // 运行句柄不在线程上留下上下文
+        assertNull(client.getContext());
+    }
+
+    @Test
+    public void testSecondStartRejected() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = echoRun(client(), "once");
+        final CompletableFuture<NameModel> future = run.start();
+        assertThrows(ItemStreamException.class, run::start);
+        assertThrows(ItemStreamException.class, run::run);
+        assertEquals("once", future.get(5, TimeUnit.SECONDS).getNameA());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(BlockingMapper.class))
+                .collectorClass(BlockingCollector.class);
+        final CompletableFuture<NameModel> future = run.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        final long start = System.nanoTime();
+        run.cancel();
+        // 以 CancellationException 完成时 get 直接抛出该异常
+        assertThrows(CancellationException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < BlockingMapper.BLOCK_MILLIS);
+        assertTrue(run.getContext().isCancelled());
+        final ItemStreamTask task = run.getContext().getTask(BlockingMapper.class);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(State.INTERRUPTED, task.getState());
+    }
+
+    @Test
+    public void testStartWithTimeout() throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client().newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(BlockingMapper.class))
+                .collectorClass(BlockingCollector.class);
+        final CompletableFuture<NameModel> future = run.start(Duration.ofMillis(200));
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(BlockingMapper.BLOCK_MILLIS / 2, TimeUnit.MILLISECONDS));
+        assertInstanceOf(ItemStreamTimeoutException.class, e.getCause());
+        assertSame(e.getCause(), run.getContext().getCancelCause());
+    }
+
+    @Item
+    public static class EchoMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(20);
+            output.setNameA(input.getNameA());
+        }
+    }
+
+    @Item(dependsOn = EchoMapper.class)
+    public static class EchoCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameAC(output.getNameA() + "-collected");
+        }
+    }
+
+    @Item
+    public static class BlockingMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final long BLOCK_MILLIS = 5000;
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.MILLISECONDS.sleep(BLOCK_MILLIS);
+        }
+    }
+
+    @Item(dependsOn = BlockingMapper.class)
+    public static class BlockingCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
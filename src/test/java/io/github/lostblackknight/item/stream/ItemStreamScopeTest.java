@@ -0,0 +1,236 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 实例作用域：单例只在编译时创建一次，池化的实例在运行之间复用且空闲实例不超过 poolSize，原型每次运行创建新的实例
+ * <p>项目流在调用线程上同步执行，运行返回时实例已经归还
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 22:00
+ * @version 1.0.0
+ */
+public class ItemStreamScopeTest {
+
+    private static final int RUNS = 4;
+
+    private static final ExecutorService starters = Executors.newFixedThreadPool(RUNS);
+
+    @AfterAll
+    public static void shutdown() {
+        starters.shutdownNow();
+    }
+
+    private static ItemStreamClient<NameModel, NameModel> client() {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(Runnable::run);
+        return ItemStreamClient.create(globalSetup);
+    }
+
+    /**
+     * 运行一次，返回 mapper 使用的实例
+     */
+    private static CountedMapper runOnce(ItemStreamClient<NameModel, NameModel> client, ItemStreamPlan plan, Class<? extends CountedMapper> mapperClass) throws Exception {
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun().output(new NameModel()).plan(plan);
+        run.run();
+        return (CountedMapper) run.getContext().getTask(mapperClass).getItemStream();
+    }
+
+    /**
+     * 在不同的线程上同时运行 {@link #RUNS} 次，返回 mapper 使用的实例
+     */
+    private static List<CountedMapper> runConcurrently(ItemStreamClient<NameModel, NameModel> client, ItemStreamPlan plan) throws Exception {
+        PooledMapper.barrier = new CountDownLatch(RUNS);
+        final List<Future<CountedMapper>> futures = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            futures.add(starters.submit(() -> runOnce(client, plan, PooledMapper.class)));
+        }
+        final List<CountedMapper> instances = new ArrayList<>();
+        for (Future<CountedMapper> future : futures) {
+            instances.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return instances;
+    }
+
+    private static void assertInitializedOnce(Collection<CountedMapper> instances) {
+        for (CountedMapper instance : instances) {
+            assertEquals(1, instance.inits);
+        }
+    }
+
+    @Test
+    public void testSingleton() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(SingletonMapper.class), SingletonCollector.class);
+        // 编译执行计划时创建并初始化
+        assertEquals(1, SingletonMapper.created.get());
+        final Set<CountedMapper> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < RUNS; i++) {
+            instances.add(runOnce(client, plan, SingletonMapper.class));
+        }
+        assertEquals(1, instances.size());
+        assertEquals(1, SingletonMapper.created.get());
+        assertInitializedOnce(instances);
+    }
+
+    @Test
+    public void testPrototype() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(PrototypeMapper.class), PrototypeCollector.class);
+        assertEquals(0, PrototypeMapper.created.get());
+        final Set<CountedMapper> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < RUNS; i++) {
+            instances.add(runOnce(client, plan, PrototypeMapper.class));
+        }
+        assertEquals(RUNS, instances.size());
+        assertEquals(RUNS, PrototypeMapper.created.get());
+        assertInitializedOnce(instances);
+    }
+
+    @Test
+    public void testPooledReused() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(ReusedMapper.class), ReusedCollector.class);
+        final Set<CountedMapper> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < RUNS; i++) {
+            instances.add(runOnce(client, plan, ReusedMapper.class));
+        }
+        // 上一次运行归还的实例被下一次运行借用
+        assertEquals(1, instances.size());
+        assertEquals(1, ReusedMapper.created.get());
+        assertInitializedOnce(instances);
+    }
+
+    @Test
+    public void testPoolSizeBound() throws Exception {
+        final ItemStreamClient<NameModel, NameModel> client = client();
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(PooledMapper.class), PooledCollector.class);
+        assertEquals(PooledMapper.POOL_SIZE, plan.getNode(PooledMapper.class).getPoolSize());
+        // 同时运行时每次运行借用不同的实例，池中没有空闲实例时创建
+        final List<CountedMapper> first = runConcurrently(client, plan);
+        final Set<CountedMapper> borrowed = Collections.newSetFromMap(new IdentityHashMap<>());
+        borrowed.addAll(first);
+        assertEquals(RUNS, borrowed.size());
+        assertEquals(RUNS, PooledMapper.created.get());
+        // 归还时只保留 poolSize 个空闲实例，其余丢弃
+        final List<CountedMapper> second = runConcurrently(client, plan);
+        assertEquals(RUNS + RUNS - PooledMapper.POOL_SIZE, PooledMapper.created.get());
+        final Set<CountedMapper> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+        reused.addAll(first);
+        reused.retainAll(second);
+        assertEquals(PooledMapper.POOL_SIZE, reused.size());
+        assertInitializedOnce(first);
+        assertInitializedOnce(second);
+    }
+
+    public abstract static class CountedMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private int inits;
+
+        @Override
+        public void init() {
+            inits++;
+            created().incrementAndGet();
+        }
+
+        protected abstract AtomicInteger created();
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+        }
+    }
+
+    @Item(scope = Scope.SINGLETON)
+    public static class SingletonMapper extends CountedMapper {
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        protected AtomicInteger created() {
+            return created;
+        }
+    }
+
+    @Item(dependsOn = SingletonMapper.class)
+    public static class SingletonCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item
+    public static class PrototypeMapper extends CountedMapper {
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        protected AtomicInteger created() {
+            return created;
+        }
+    }
+
+    @Item(dependsOn = PrototypeMapper.class)
+    public static class PrototypeCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(scope = Scope.POOLED)
+    public static class ReusedMapper extends CountedMapper {
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        protected AtomicInteger created() {
+            return created;
+        }
+    }
+
+    @Item(dependsOn = ReusedMapper.class)
+    public static class ReusedCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(scope = Scope.POOLED, poolSize = PooledMapper.POOL_SIZE)
+    public static class PooledMapper extends CountedMapper {
+
+        private static final int POOL_SIZE = 2;
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        private static volatile CountDownLatch barrier;
+
+        @Override
+        protected AtomicInteger created() {
+            return created;
+        }
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            // 所有运行都借用到实例后再结束，使实例同时被借出
+            barrier.countDown();
+            assertTrue(barrier.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Item(dependsOn = PooledMapper.class)
+    public static class PooledCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package io.github.lostblackknight.item.stream;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.MethodGraph;
+import net.bytebuddy.dynamic.scaffold.TypeValidation;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 依赖的序号：依赖状态按序号保存在数组中，runnableMust 与 interruptedMust 按序号编译为位图
+ * <p>依赖与 collector 在运行时生成，调用线程上同步执行，依赖按声明的顺序到达终态
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 21:30
+ * @version 1.0.0
+ */
+public class ItemStreamSlotTest {
+
+    private static final String PACKAGE = "io.github.lostblackknight.item.stream.slot";
+
+    /**
+     * 生成的类只有构造器，不需要校验与分析父类的方法
+     */
+    private static final ByteBuddy BYTE_BUDDY = new ByteBuddy()
+            .with(TypeValidation.DISABLED)
+            .with(MethodGraph.Compiler.ForDeclaredMethods.INSTANCE);
+
+    private static final AnnotationDescription NO_DEPENDS_ON = AnnotationDescription.Builder.ofType(Item.class).build();
+
+    @Test
+    public void testMustSlotsAfterFirst() throws Exception {
+        // 只有第三个依赖是 runnableMust，前两个依赖完成后仍然等待
+        final Fixture runnable = Fixture.generate(3, dependsOn -> item(dependsOn)
+                .define("runnableMode", RunnableMode.MUST)
+                .defineTypeArray("runnableMust", dependsOn[2])
+                .build());
+        runnable.run();
+        runnable.assertDecided(State.TERMINATED, 2);
+        assertEquals(State.TERMINATED, runnable.getTarget().getDependsOnState(runnable.getDependsOn(1)));
+
+        // 第二个依赖是 interruptedMust，被打断时决定为 INTERRUPTED，不再等待第三个依赖
+        final Fixture interrupted = Fixture.generate(3, dependsOn -> item(dependsOn)
+                .define("runnableMode", RunnableMode.MUST)
+                .defineTypeArray("runnableMust", dependsOn[2])
+                .define("interruptedMode", InterruptedMode.MUST)
+                .defineTypeArray("interruptedMust", dependsOn[1])
+                .build(), 1);
+        interrupted.run();
+        interrupted.assertDecided(State.INTERRUPTED, 1);
+        assertEquals(State.NEW, interrupted.getTarget().getDependsOnState(interrupted.getDependsOn(2)));
+    }
+
+    @Test
+    public void testRunnableMustAcrossWords() throws Exception {
+        // 130 个依赖的位图占三个 long，runnableMust 分别位于每个 long 的边界
+        final Fixture fixture = Fixture.generate(130, dependsOn -> item(dependsOn)
+                .define("runnableMode", RunnableMode.MUST)
+                .defineTypeArray("runnableMust", dependsOn[63], dependsOn[64], dependsOn[128])
+                .build());
+        fixture.run();
+        fixture.assertDecided(State.TERMINATED, 128);
+        assertEquals(State.NEW, fixture.getTarget().getDependsOnState(fixture.getDependsOn(129)));
+    }
+
+    @Test
+    public void testInterruptedMustAcrossWords() throws Exception {
+        // 第 70 个依赖不是 interruptedMust，被打断时不决定状态；第 100 个依赖是
+        final Fixture interrupted = Fixture.generate(130, dependsOn -> item(dependsOn)
+                .define("interruptedMode", InterruptedMode.MUST)
+                .defineTypeArray("interruptedMust", dependsOn[100])
+                .build(), 70, 100);
+        interrupted.run();
+        interrupted.assertDecided(State.INTERRUPTED, 100);
+
+        // interruptedMust 完成后，其他被打断的依赖算作完成
+        final Fixture terminated = Fixture.generate(130, dependsOn -> item(dependsOn)
+                .define("interruptedMode", InterruptedMode.MUST)
+                .defineTypeArray("interruptedMust", dependsOn[65])
+                .build(), 70, 100);
+        terminated.run();
+        terminated.assertDecided(State.TERMINATED, 129);
+    }
+
+    @Test
+    public void testMaxDependsOn() throws Exception {
+        final Logger logger = packageLogger();
+        final Level level = logger.getLevel();
+        // 每个依赖事件的调试日志会打印全部依赖的状态
+        logger.setLevel(Level.INFO);
+        try {
+            // 目标依赖前 MAX_DEPENDS_ON 个依赖，所有依赖完成时完成计数等于计数的最大值，不会进位到打断计数
+            final Fixture fixture = Fixture.generate(ItemStream.MAX_DEPENDS_ON + 1,
+                    dependsOn -> item(Arrays.copyOf(dependsOn, ItemStream.MAX_DEPENDS_ON)).build());
+            fixture.run();
+            fixture.assertDecided(State.TERMINATED, ItemStream.MAX_DEPENDS_ON - 1);
+
+            // 依赖全部 MAX_DEPENDS_ON + 1 个依赖时编译失败
+            final Class<? extends ItemStream> exceeded = fixture.defineCollector("ExceededCollector", ItemStreamSlotTest::all);
+            final ItemStreamException e = assertThrows(ItemStreamException.class,
+                    () -> ItemStreamPlan.compile(Fixture.globalSetup(), fixture.dependsOn, exceeded));
+            assertTrue(e.getMessage().contains(String.valueOf(ItemStream.MAX_DEPENDS_ON)));
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    /**
+     * 其他测试类同时初始化 SLF4J 时返回的是临时的 SubstituteLogger，等待初始化完成
+     */
+    private static Logger packageLogger() throws InterruptedException {
+        final String name = ItemStream.class.getPackage().getName();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        org.slf4j.Logger logger = LoggerFactory.getLogger(name);
+        while (!(logger instanceof Logger) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+            logger = LoggerFactory.getLogger(name);
+        }
+        assertInstanceOf(Logger.class, logger);
+        return (Logger) logger;
+    }
+
+    private static AnnotationDescription.Builder item(TypeDescription[] dependsOn) {
+        return AnnotationDescription.Builder.ofType(Item.class).defineTypeArray("dependsOn", dependsOn);
+    }
+
+    private static AnnotationDescription all(TypeDescription[] dependsOn) {
+        return item(dependsOn).build();
+    }
+
+    /**
+     * 生成的依赖、目标与 collector，collector 只依赖目标且不会被打断
+     */
+    private static final class Fixture {
+
+        private final TypeDescription[] dependsOnTypes;
+
+        private final List<Class<?>> dependsOn;
+
+        private final Class<? extends ItemStream> target;
+
+        private final Class<? extends ItemStream> collector;
+
+        private ItemStreamRun<Object, Object> run;
+
+        private Fixture(TypeDescription[] dependsOnTypes, List<Class<?>> dependsOn, Class<? extends ItemStream> target, Class<? extends ItemStream> collector) {
+            this.dependsOnTypes = dependsOnTypes;
+            this.dependsOn = dependsOn;
+            this.target = target;
+            this.collector = collector;
+        }
+
+        /**
+         * 生成 width 个依赖、目标与 collector，目标依赖哪些依赖由 item 决定
+         *
+         * @param width   依赖的数量
+         * @param item    由依赖生成目标的 {@link Item}
+         * @param failing 失败的依赖的序号
+         * @return 生成的类
+         */
+        private static Fixture generate(int width, Function<TypeDescription[], AnnotationDescription> item, int... failing) {
+            final Set<Integer> failed = new HashSet<>();
+            for (int slot : failing) {
+                failed.add(slot);
+            }
+            final Map<TypeDescription, byte[]> types = new LinkedHashMap<>();
+            final TypeDescription[] dependsOn = new TypeDescription[width];
+            for (int i = 0; i < width; i++) {
+                dependsOn[i] = define(types, failed.contains(i) ? FailingMapper.class : NoopMapper.class, "Mapper" + i, NO_DEPENDS_ON);
+            }
+            final TypeDescription target = define(types, NoopMapper.class, "Target", item.apply(dependsOn));
+            final TypeDescription collector = define(types, NoopCollector.class, "Collector", item(new TypeDescription[]{target})
+                    .define("interruptedMode", InterruptedMode.NONE)
+                    .build());
+            // 所有类加载到同一个类加载器中，只查找一次编译时生成的定义
+            final Map<TypeDescription, Class<?>> loaded = ClassLoadingStrategy.Default.WRAPPER.load(ItemStreamSlotTest.class.getClassLoader(), types);
+            final List<Class<?>> dependsOnClasses = new ArrayList<>(width);
+            for (TypeDescription type : dependsOn) {
+                dependsOnClasses.add(loaded.get(type));
+            }
+            return new Fixture(dependsOn, dependsOnClasses, loaded.get(target).asSubclass(ItemStream.class), loaded.get(collector).asSubclass(ItemStream.class));
+        }
+
+        /**
+         * 在子类加载器中生成依赖已生成的依赖的 collector
+         *
+         * @param name 类名
+         * @param item collector 的 {@link Item}
+         * @return 生成的类
+         */
+        private Class<? extends ItemStream> defineCollector(String name, Function<TypeDescription[], AnnotationDescription> item) {
+            final Map<TypeDescription, byte[]> types = new LinkedHashMap<>();
+            final TypeDescription collector = define(types, NoopCollector.class, name, item.apply(dependsOnTypes));
+            return ClassLoadingStrategy.Default.WRAPPER.load(target.getClassLoader(), types).get(collector).asSubclass(ItemStream.class);
+        }
+
+        private static TypeDescription define(Map<TypeDescription, byte[]> types, Class<?> superClass, String name, AnnotationDescription item) {
+            final DynamicType.Unloaded<?> type = BYTE_BUDDY
+                    .subclass(superClass)
+                    .name(PACKAGE + "." + name)
+                    .annotateType(item)
+                    .make();
+            types.put(type.getTypeDescription(), type.getBytes());
+            return type.getTypeDescription();
+        }
+
+        private ItemStreamPlan compile() {
+            final List<Class<?>> mapperClasses = new ArrayList<>(dependsOn);
+            mapperClasses.add(target);
+            return ItemStreamPlan.compile(globalSetup(), mapperClasses, collector);
+        }
+
+        private void run() throws Exception {
+            run = ItemStreamClient.create(globalSetup()).newRun().output(new Object()).plan(compile());
+            run.run();
+        }
+
+        private static GlobalSetup globalSetup() {
+            final GlobalSetup globalSetup = new GlobalSetup();
+            globalSetup.setExecutor(Runnable::run);
+            return globalSetup;
+        }
+
+        private void assertDecided(State state, int trigger) {
+            final ItemStreamTask task = getTarget();
+            assertEquals(state, task.getState());
+            assertSame(run.getContext().getTask(getDependsOn(trigger)), task.getTrigger());
+        }
+
+        private ItemStreamTask getTarget() {
+            return run.getContext().getTask(target);
+        }
+
+        private Class<? extends ItemStream> getDependsOn(int slot) {
+            return dependsOn.get(slot).asSubclass(ItemStream.class);
+        }
+    }
+
+    public static class NoopMapper extends ItemStreamMapper<Object, Object> {
+
+        @Override
+        public void map(Object input, Object output, Context<Object, Object> context) {
+        }
+    }
+
+    public static class FailingMapper extends ItemStreamMapper<Object, Object> {
+
+        @Override
+        public void map(Object input, Object output, Context<Object, Object> context) {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    public static class NoopCollector extends ItemStreamCollector<Object, Object> {
+
+        @Override
+        public void collect(Object output, Context<Object, Object> context) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.mapper.CMapper;
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 超时：项目流超时与运行期限到期都以 {@link ItemStreamTimeoutException} 打断，打断的后续动作不在定时器线程上运行
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 11:30
+ * @version 1.0.0
+ */
+public class ItemStreamTimeoutTest {
+
+    private static final String TIMER_THREAD = "item-stream-timer-";
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testNodeTimeoutInterrupted() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun()
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(TimeoutMapper.class))
+                .collectorClass(TimeoutCollector.class);
+        final long start = System.nanoTime();
+        run.run();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        final ItemStreamTask task = run.getContext().getTask(TimeoutMapper.class);
+        assertEquals(State.INTERRUPTED, task.getState());
+        assertInstanceOf(ItemStreamTimeoutException.class, task.getInterruptCause().peekLast());
+        assertEquals(State.INTERRUPTED, run.getContext().getCollector().getState());
+        // 打断后的 ex 在线程池中进行，可能在 collector 到达终态之后
+        assertTrue(TimeoutMapper.exCalled.await(1, TimeUnit.SECONDS));
+        assertNotNull(TimeoutMapper.exThread.get());
+        assertFalse(TimeoutMapper.exThread.get().startsWith(TIMER_THREAD));
+    }
+
+    @Test
+    public void testRunDeadline() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun()
+                .input(new NameModel("a", "c", "ac", "d"))
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(CMapper.class))
+                .collectorClass(DeadlineCollector.class);
+        final long start = System.nanoTime();
+        assertThrows(ItemStreamTimeoutException.class, () -> run.run(Duration.ofMillis(200)));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+        assertInstanceOf(ItemStreamTimeoutException.class, run.getContext().getCancelCause());
+        // 取消后所有任务都会到达终态
+        final ItemStreamTask task = run.getContext().getTask(CMapper.class);
+        run.getContext().getFuture().handle((output, ex) -> output).join();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(State.INTERRUPTED, task.getState());
+        assertSame(run.getContext().getCancelCause(), task.getInterruptCause().peekLast());
+    }
+
+    @Test
+    public void testRunDeadlineCompletesOffTimer() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final AtomicReference<String> completer = new AtomicReference<>();
+        final ItemStreamRun<NameModel, NameModel> run = client.newRun()
+                .input(new NameModel("a", "c", "ac", "d"))
+                .output(new NameModel())
+                .mapperClass(Collections.singletonList(CMapper.class))
+                .collectorClass(DeadlineCollector.class);
+        run.start(Duration.ofMillis(100))
+                .whenComplete((output, ex) -> completer.set(Thread.currentThread().getName()))
+                .handle((output, ex) -> ex)
+                .get(5, TimeUnit.SECONDS);
+        assertNotNull(completer.get());
+        assertFalse(completer.get().startsWith(TIMER_THREAD));
+    }
+
+    @Test
+    public void testPooledNotReusedBeforeEx() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(PooledTimeoutMapper.class), PooledTimeoutCollector.class);
+        final ItemStreamRun<NameModel, NameModel> timedOut = client.newRun()
+                .input(new NameModel("slow", null, null, null))
+                .output(new NameModel())
+                .plan(plan);
+        timedOut.start().handle((output, ex) -> ex).get(5, TimeUnit.SECONDS);
+        // 运行线程被打断后已经退出，ex 仍在线程池中进行
+        assertTrue(PooledTimeoutMapper.exEntered.await(1, TimeUnit.SECONDS));
+        final PooledTimeoutMapper instance = (PooledTimeoutMapper) timedOut.getContext().getTask(PooledTimeoutMapper.class).getItemStream();
+        try {
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(0, instance.cleanups.get());
+            // ex 返回前实例没有归还，下一次运行借用新的实例
+            final ItemStreamRun<NameModel, NameModel> next = client.newRun()
+                    .input(new NameModel("fast", null, null, null))
+                    .output(new NameModel())
+                    .plan(plan);
+            next.start().get(5, TimeUnit.SECONDS);
+            assertNotSame(instance, next.getContext().getTask(PooledTimeoutMapper.class).getItemStream());
+        } finally {
+            PooledTimeoutMapper.exReturn.countDown();
+        }
+        // ex 返回后才清理
+        assertTrue(instance.cleaned.await(1, TimeUnit.SECONDS));
+        assertTrue(instance.cleanedAfterEx);
+    }
+
+    @Item(timeoutMillis = 100)
+    public static class TimeoutMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final AtomicReference<String> exThread = new AtomicReference<>();
+
+        private static final CountDownLatch exCalled = new CountDownLatch(1);
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            TimeUnit.SECONDS.sleep(5);
+        }
+
+        @Override
+        public void ex(Exception ex, Context<NameModel, NameModel> context) {
+            exThread.set(Thread.currentThread().getName());
+            exCalled.countDown();
+        }
+    }
+
+    @Item(dependsOn = TimeoutMapper.class)
+    public static class TimeoutCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(timeoutMillis = 100, scope = Scope.POOLED, poolSize = 1)
+    public static class PooledTimeoutMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final CountDownLatch exEntered = new CountDownLatch(1);
+
+        private static final CountDownLatch exReturn = new CountDownLatch(1);
+
+        private final AtomicInteger cleanups = new AtomicInteger();
+
+        private final CountDownLatch cleaned = new CountDownLatch(1);
+
+        private volatile boolean exReturned;
+
+        private volatile boolean cleanedAfterEx;
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) throws Exception {
+            if ("slow".equals(input.getNameA())) {
+                // 被打断时立即退出
+                TimeUnit.SECONDS.sleep(5);
+            }
+        }
+
+        @Override
+        public void ex(Exception ex, Context<NameModel, NameModel> context) {
+            exEntered.countDown();
+            try {
+                exReturn.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exReturned = true;
+        }
+
+        @Override
+        public void cleanup(Context<NameModel, NameModel> context) {
+            cleanedAfterEx = exReturned;
+            cleanups.incrementAndGet();
+            cleaned.countDown();
+        }
+    }
+
+    @Item(dependsOn = PooledTimeoutMapper.class)
+    public static class PooledTimeoutCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(dependsOn = CMapper.class)
+    public static class DeadlineCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}
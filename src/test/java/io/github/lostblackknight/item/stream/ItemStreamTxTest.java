@@ -0,0 +1,153 @@
+package io.github.lostblackknight.item.stream;
+
+import io.github.lostblackknight.item.stream.model.NameModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事务：对象池中的项目流实例在各自提交或回滚结束后才归还
+ *
+ * @author chensixiang (chensixiang1234@gmail.com) 2026/10/19 11:00
+ * @version 1.0.0
+ */
+public class ItemStreamTxTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterAll
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPooledInstanceNotReusedDuringRollback() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Arrays.asList(PooledTxMapper.class, FailingTxMapper.class), FailingTxCollector.class);
+        // collector 被打断后立即开始下一次运行，上一次运行的实例仍在回滚
+        for (int i = 0; i < 3; i++) {
+            final NameModel output = client.newRun().output(new NameModel()).plan(plan).run();
+            assertEquals("pooled", output.getNameA());
+        }
+        TimeUnit.MILLISECONDS.sleep(PooledTxMapper.ROLLBACK_MILLIS * 2);
+        assertEquals(0, PooledTxMapper.reusedDuringRollback.get());
+        assertEquals(3, PooledTxMapper.rollbacks.get());
+        // 回滚结束后实例归还到对象池，下一次运行复用
+        final int created = PooledTxMapper.created.get();
+        client.newRun().output(new NameModel()).plan(plan).run();
+        assertEquals(created, PooledTxMapper.created.get());
+    }
+
+    @Test
+    public void testPooledInstanceReturnedAfterCommit() throws Exception {
+        final GlobalSetup globalSetup = new GlobalSetup();
+        globalSetup.setExecutor(executor);
+        final ItemStreamClient<NameModel, NameModel> client = ItemStreamClient.create(globalSetup);
+        final ItemStreamPlan plan = client.compile(Collections.singletonList(CommitTxMapper.class), CommitTxCollector.class);
+        final Set<ItemStream> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 5; i++) {
+            final ItemStreamRun<NameModel, NameModel> run = client.newRun().output(new NameModel()).plan(plan);
+            assertEquals("committed", run.run().getNameA());
+            final ItemStreamTask task = run.getContext().getTask(CommitTxMapper.class);
+            instances.add(task.getItemStream());
+            // mapper 没有在完成依赖的线程上接着运行 collector 时，可能在 collector 完成后才结束运行并提交，归还后再开始下一次运行
+            awaitReleased(task);
+        }
+        assertEquals(1, instances.size());
+    }
+
+    private static void awaitReleased(ItemStreamTask task) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!task.isReleased() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertTrue(task.isReleased());
+    }
+
+    @Item(tx = "true", scope = Scope.POOLED, poolSize = 4)
+    public static class PooledTxMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        private static final long ROLLBACK_MILLIS = 300;
+
+        private static final AtomicInteger created = new AtomicInteger();
+
+        private static final AtomicInteger rollbacks = new AtomicInteger();
+
+        private static final AtomicInteger reusedDuringRollback = new AtomicInteger();
+
+        private final AtomicBoolean rollingBack = new AtomicBoolean();
+
+        @Override
+        public void init() {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            if (rollingBack.get()) {
+                reusedDuringRollback.incrementAndGet();
+            }
+            output.setNameA("pooled");
+        }
+
+        @Override
+        public void rollback(Context<NameModel, NameModel> context) {
+            rollingBack.set(true);
+            try {
+                TimeUnit.MILLISECONDS.sleep(ROLLBACK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                rollingBack.set(false);
+                rollbacks.incrementAndGet();
+            }
+        }
+    }
+
+    @Item(tx = "true", dependsOn = PooledTxMapper.class)
+    public static class FailingTxMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    @Item(tx = "true", dependsOn = FailingTxMapper.class)
+    public static class FailingTxCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+
+    @Item(tx = "true", scope = Scope.POOLED, poolSize = 4)
+    public static class CommitTxMapper extends ItemStreamMapper<NameModel, NameModel> {
+
+        @Override
+        public void map(NameModel input, NameModel output, Context<NameModel, NameModel> context) {
+            output.setNameA("committed");
+        }
+    }
+
+    @Item(tx = "true", dependsOn = CommitTxMapper.class)
+    public static class CommitTxCollector extends ItemStreamCollector<NameModel, NameModel> {
+
+        @Override
+        public void collect(NameModel output, Context<NameModel, NameModel> context) {
+        }
+    }
+}